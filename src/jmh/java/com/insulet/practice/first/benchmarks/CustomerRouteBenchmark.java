@@ -0,0 +1,78 @@
+package com.insulet.practice.first.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.insulet.practice.first.FirstApplication;
+
+/**
+ * End to end through direct:getCustomerById against embedded H2, without the HTTP layer. Uses the
+ * test application.yml and the H2 migrations plus db/testdata seed rows.
+ */
+@State(Scope.Benchmark)
+public class CustomerRouteBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private ProducerTemplate producerTemplate;
+  private Map<String, Object> validHeaders;
+  private Map<String, Object> invalidHeaders;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(FirstApplication.class)
+        .properties(
+            "server.port=0",
+            "logging.level.org.apache.camel=WARN",
+            "management.statsd.metrics.export.enabled=false",
+            // The spool directory is locked while open, keep it out of the working directory
+            "application.request.audit.spool.directory=${java.io.tmpdir}/first-audit-spool-${random.uuid}",
+            // One customer in a tight loop, a limiter would turn the valid benchmark into the 429/503 path
+            "application.request.rate-limit.enabled=false",
+            "application.request.adaptive-limit.enabled=false")
+        .run();
+    producerTemplate = context.getBean(ProducerTemplate.class);
+
+    validHeaders = new HashMap<>();
+    validHeaders.put("customerId", "CUST123");
+    validHeaders.put("startDate", "2024-01-01T00:00:00.000Z");
+    validHeaders.put("endDate", "2024-12-31T23:59:59.999Z");
+    validHeaders.put("limit", 100);
+
+    invalidHeaders = new HashMap<>();
+    invalidHeaders.put("customerId", "CUST123");
+    invalidHeaders.put("startDate", "2024-01-01");
+    invalidHeaders.put("limit", 501);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object validRequest() {
+    Exchange exchange = producerTemplate.send("direct:getCustomerById",
+        request -> request.getIn().setHeaders(new HashMap<>(validHeaders)));
+    // Fail the run rather than record a baseline for an error path
+    Integer status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+    if (exchange.getException() != null || (status != null && status >= 400)) {
+      throw new IllegalStateException("validRequest answered " + status, exchange.getException());
+    }
+    return exchange.getMessage().getBody();
+  }
+
+  @Benchmark
+  public Object invalidRequest() {
+    return producerTemplate.requestBodyAndHeaders("direct:getCustomerById", null, invalidHeaders);
+  }
+}
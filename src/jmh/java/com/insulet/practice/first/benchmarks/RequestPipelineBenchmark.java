@@ -0,0 +1,119 @@
+package com.insulet.practice.first.benchmarks;
+
+import java.util.Set;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.component.bean.validator.BeanValidationException;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.insulet.practice.first.metrics.ValidationViolationCounter;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.processors.ErrorResponseWriter;
+import com.insulet.practice.first.processors.RequestPrecheck;
+import com.insulet.practice.first.processors.ValidationExceptionProcessor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Request conversion, bean validation, the precheck and error-message building, each in isolation.
+ */
+@State(Scope.Benchmark)
+public class RequestPipelineBenchmark {
+
+  private CamelContext camelContext;
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private Exchange requestExchange;
+  private Exchange failedExchange;
+  private Exchange rejectedExchange;
+  private ValidationExceptionProcessor validationExceptionProcessor;
+
+  private final CustomerRequest validRequest = new CustomerRequest(
+      "CUST123", "2024-01-01T00:00:00.000Z", "2024-12-31T23:59:59.999Z", 1, 100);
+  private final CustomerRequest invalidRequest = new CustomerRequest(
+      "CUST123", "2024-01-01", "2023-12-31T23:59:59.999Z", -1, 501);
+
+  @Setup
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void setUp() {
+    camelContext = new DefaultCamelContext();
+    camelContext.start();
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    validationExceptionProcessor = new ValidationExceptionProcessor(
+        new ValidationViolationCounter(new SimpleMeterRegistry()), new ErrorResponseWriter());
+
+    requestExchange = new DefaultExchange(camelContext);
+    requestExchange.getIn().setHeader("customerId", "CUST123");
+    requestExchange.getIn().setHeader("startDate", "2024-01-01T00:00:00.000Z");
+    requestExchange.getIn().setHeader("endDate", "2024-12-31T23:59:59.999Z");
+    requestExchange.getIn().setHeader("page", "1");
+    requestExchange.getIn().setHeader("limit", "100");
+
+    Set<ConstraintViolation<Object>> violations = (Set) validator.validate(invalidRequest);
+    failedExchange = new DefaultExchange(camelContext);
+    failedExchange.setProperty(Exchange.EXCEPTION_CAUGHT,
+        new BeanValidationException(failedExchange, violations, invalidRequest));
+
+    int rejected = RequestPrecheck.check(invalidRequest);
+    rejectedExchange = new DefaultExchange(camelContext);
+    rejectedExchange.setProperty(Exchange.EXCEPTION_CAUGHT,
+        new RequestRejectedException(rejected, RequestPrecheck.describe(rejected)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+    camelContext.stop();
+  }
+
+  @Benchmark
+  public CustomerRequest fromExchange() {
+    return CustomerRequest.fromExchange(requestExchange, 100);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CustomerRequest>> validateValidRequest() {
+    return validator.validate(validRequest);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CustomerRequest>> validateInvalidRequest() {
+    return validator.validate(invalidRequest);
+  }
+
+  @Benchmark
+  public int precheckValidRequest() {
+    return RequestPrecheck.check(validRequest);
+  }
+
+  @Benchmark
+  public RequestRejectedException precheckInvalidRequest() {
+    int violations = RequestPrecheck.check(invalidRequest);
+    return new RequestRejectedException(violations, RequestPrecheck.describe(violations));
+  }
+
+  @Benchmark
+  public Object buildValidationErrorResponse() throws Exception {
+    validationExceptionProcessor.process(failedExchange);
+    return failedExchange.getMessage().getBody();
+  }
+
+  @Benchmark
+  public Object buildRejectedErrorResponse() throws Exception {
+    validationExceptionProcessor.process(rejectedExchange);
+    return rejectedExchange.getMessage().getBody();
+  }
+}
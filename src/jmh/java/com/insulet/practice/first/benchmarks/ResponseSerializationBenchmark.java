@@ -0,0 +1,71 @@
+package com.insulet.practice.first.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulet.practice.first.model.ErrorResponse;
+import com.insulet.practice.first.model.ResponseProperties;
+import com.insulet.practice.first.model.SuccessResponse;
+import com.insulet.practice.first.processors.ErrorResponseWriter;
+import com.insulet.practice.first.processors.JsonResponseWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Jackson serialization of the response records: the generic ObjectMapper path the REST binding
+ * used, against the pooled pre-resolved writer in {@link JsonResponseWriter} and the cached error
+ * bodies from {@link ErrorResponseWriter}.
+ */
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+  @Param({ "1", "100", "500" })
+  public int pageSize;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter();
+  private final JsonResponseWriter jsonResponseWriter =
+      new JsonResponseWriter(objectMapper, new ResponseProperties(), new SimpleMeterRegistry());
+  private List<SuccessResponse> page;
+  private ErrorResponse error;
+
+  @Setup
+  public void setUp() {
+    page = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      page.add(new SuccessResponse("Customer " + i, i + " Main Street, New York, NY 10001",
+          50_000.0 + i, "1990-05-15T08:30:00.000Z"));
+    }
+    error = new ErrorResponse("limit: Limit cannot be greater than 500", "ValidationException", "400",
+        System.currentTimeMillis());
+  }
+
+  @Benchmark
+  public byte[] serializeSuccessPage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] writePooledSuccessPage() throws IOException {
+    return jsonResponseWriter.serialize(page);
+  }
+
+  @Benchmark
+  public byte[] serializeErrorResponse() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(error);
+  }
+
+  @Benchmark
+  public byte[] writeCachedErrorResponse() {
+    return errorResponseWriter.write(error.message(), error.error(), 400, System.currentTimeMillis());
+  }
+}
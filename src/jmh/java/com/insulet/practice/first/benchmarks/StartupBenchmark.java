@@ -0,0 +1,58 @@
+package com.insulet.practice.first.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.insulet.practice.first.FirstApplication;
+
+/**
+ * Time from SpringApplication.run to the first 200 from GET /customers/{customerId} over HTTP,
+ * against embedded H2 with the test configuration. Only meaningful as a cold start, so it runs
+ * with ./gradlew jmh -PjmhStartup: single shot, one iteration per fork.
+ */
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  @Param({"default", "fast-startup"})
+  public String profile;
+
+  @Benchmark
+  public int timeToFirstSuccessfulRequest() throws Exception {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(FirstApplication.class)
+        .profiles(profile)
+        .properties(
+            "server.port=0",
+            "logging.level.org.apache.camel=WARN",
+            "management.statsd.metrics.export.enabled=false",
+            // The spool directory is locked while open, keep it out of the working directory
+            "application.request.audit.spool.directory=${java.io.tmpdir}/first-audit-spool-${random.uuid}")
+        .run();
+    try {
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+      HttpRequest request = HttpRequest.newBuilder(
+              URI.create("http://localhost:" + port + "/data-share/v1/customers/CUST123"))
+          .timeout(REQUEST_TIMEOUT)
+          .build();
+      HttpResponse<Void> response = HttpClient.newHttpClient()
+          .send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException("First request answered " + response.statusCode());
+      }
+      return response.statusCode();
+    } finally {
+      context.close();
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.insulet.practice.first.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Sends the request mix to GET /customers/{customerId} for warmup plus duration. Every request
+ * runs on its own virtual thread, so neither model is limited by client threads.
+ *
+ * <p>In the open model latency is measured from the time a request was scheduled to start, not
+ * from when it was sent, so a stalled server is charged for the requests that queued behind it
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+
+  private final LoadTestSettings settings;
+  private final String customersUrl;
+  private final LoadResults results;
+  private final HttpClient client;
+
+  private long measureFromNanos;
+
+  LoadGenerator(LoadTestSettings settings, URI baseUri, LoadResults results) {
+    this.settings = settings;
+    this.customersUrl = baseUri.toString().replaceAll("/+$", "") + "/customers/";
+    this.results = results;
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(settings.requestTimeout())
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+  }
+
+  /**
+   * Runs warmup and measurement, reporting each interval on stdout. Returns the measured seconds.
+   */
+  double run() throws InterruptedException {
+    long start = System.nanoTime();
+    measureFromNanos = start + settings.warmup().toNanos();
+    long endNanos = measureFromNanos + settings.duration().toNanos();
+
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "loadtest-report");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long reportMillis = settings.reportInterval().toMillis();
+    reporter.scheduleAtFixedRate(() -> report(start), reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+    try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+      if (settings.model() == LoadTestSettings.Model.OPEN) {
+        runOpen(requests, start, endNanos);
+      } else {
+        runClosed(requests, endNanos);
+      }
+      // Closing waits for the requests still in flight, each bounded by the request timeout
+    } finally {
+      reporter.shutdownNow();
+    }
+    return Math.min(System.nanoTime() - measureFromNanos, endNanos - measureFromNanos) / 1e9;
+  }
+
+  private void runOpen(ExecutorService requests, long start, long endNanos) {
+    long intervalNanos = (long) (1e9 / settings.rate());
+    Semaphore outstanding = new Semaphore(settings.maxOutstanding());
+    for (long i = 0;; i++) {
+      long scheduled = start + i * intervalNanos;
+      if (scheduled >= endNanos) {
+        return;
+      }
+      // Behind schedule the loop sends immediately and latency still counts from the scheduled time
+      long wait;
+      while ((wait = scheduled - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      if (!outstanding.tryAcquire()) {
+        results.recordDropped(scheduled >= measureFromNanos);
+        continue;
+      }
+      requests.execute(() -> {
+        try {
+          send(scheduled);
+        } finally {
+          outstanding.release();
+        }
+      });
+    }
+  }
+
+  private void runClosed(ExecutorService requests, long endNanos) {
+    for (int client = 0; client < settings.concurrency(); client++) {
+      requests.execute(() -> {
+        long scheduled;
+        while ((scheduled = System.nanoTime()) < endNanos && !Thread.currentThread().isInterrupted()) {
+          send(scheduled);
+        }
+      });
+    }
+  }
+
+  private void send(long scheduled) {
+    RequestMix.Kind kind = settings.mix().next();
+    List<String> customers = settings.customers();
+    String customerId = customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+    HttpRequest request = HttpRequest.newBuilder(URI.create(customersUrl + customerId + "?" + kind.query))
+        .timeout(settings.requestTimeout())
+        .GET()
+        .build();
+    boolean measured = scheduled >= measureFromNanos;
+    try {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+      results.record(kind, response.statusCode(), System.nanoTime() - scheduled, measured);
+    } catch (IOException e) {
+      results.recordFailure(kind, System.nanoTime() - scheduled, measured);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void report(long start) {
+    Histogram interval = results.intervalHistogram();
+    long errors = results.intervalErrors();
+    long now = System.nanoTime();
+    double seconds = settings.reportInterval().toNanos() / 1e9;
+    System.out.printf("[%5.0fs]%s %8.1f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  errors %d%n",
+        (now - start) / 1e9,
+        now < measureFromNanos ? " warmup" : "       ",
+        interval.getTotalCount() / seconds,
+        interval.getValueAtPercentile(50) / 1000.0,
+        interval.getValueAtPercentile(99) / 1000.0,
+        interval.getMaxValue() / 1000.0,
+        errors);
+  }
+}
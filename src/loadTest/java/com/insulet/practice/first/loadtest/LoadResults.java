@@ -0,0 +1,196 @@
+package com.insulet.practice.first.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histograms and outcome counts of a run. Latencies are kept in microseconds, up to a
+ * minute with three significant digits. A response counts as an error when its status differs
+ * from the one its request kind expects; a request that failed without a response (timeout,
+ * connection refused) or was dropped because too many were outstanding is an error too.
+ */
+final class LoadResults {
+
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Map<RequestMix.Kind, KindResults> kinds = new EnumMap<>(RequestMix.Kind.class);
+  private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+  private final LongAdder dropped = new LongAdder();
+
+  // Everything since the last interval report, warmup included
+  private final Recorder interval = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+  private final LongAdder intervalErrors = new LongAdder();
+
+  LoadResults() {
+    for (RequestMix.Kind kind : RequestMix.Kind.values()) {
+      kinds.put(kind, new KindResults());
+    }
+  }
+
+  void record(RequestMix.Kind kind, int status, long latencyNanos, boolean measured) {
+    long micros = micros(latencyNanos);
+    interval.recordValue(micros);
+    boolean error = status != kind.expectedStatus;
+    if (error) {
+      intervalErrors.increment();
+    }
+    if (measured) {
+      KindResults results = kinds.get(kind);
+      results.latency.recordValue(micros);
+      (error ? results.errors : results.ok).increment();
+      statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+  }
+
+  void recordFailure(RequestMix.Kind kind, long latencyNanos, boolean measured) {
+    interval.recordValue(micros(latencyNanos));
+    intervalErrors.increment();
+    if (measured) {
+      KindResults results = kinds.get(kind);
+      results.latency.recordValue(micros(latencyNanos));
+      results.failures.increment();
+    }
+  }
+
+  void recordDropped(boolean measured) {
+    intervalErrors.increment();
+    if (measured) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Latencies and error count since the previous call.
+   */
+  Histogram intervalHistogram() {
+    return interval.getIntervalHistogram();
+  }
+
+  long intervalErrors() {
+    return intervalErrors.sumThenReset();
+  }
+
+  Summary summarize(double measuredSeconds) {
+    Histogram all = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    Map<String, KindSummary> byKind = new LinkedHashMap<>();
+    long responses = 0;
+    long errors = dropped.sum();
+    for (Map.Entry<RequestMix.Kind, KindResults> entry : kinds.entrySet()) {
+      KindResults results = entry.getValue();
+      Histogram latency = results.latency.copy();
+      long count = results.ok.sum() + results.errors.sum() + results.failures.sum();
+      if (count == 0) {
+        continue;
+      }
+      all.add(latency);
+      responses += results.ok.sum() + results.errors.sum();
+      errors += results.errors.sum() + results.failures.sum();
+      byKind.put(entry.getKey().label, new KindSummary(count, results.errors.sum() + results.failures.sum(),
+          Percentiles.of(latency)));
+    }
+    Map<Integer, Long> statusCounts = new TreeMap<>();
+    statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+    long attempted = all.getTotalCount() + dropped.sum();
+    return new Summary(
+        measuredSeconds,
+        attempted,
+        measuredSeconds > 0 ? responses / measuredSeconds : 0,
+        attempted > 0 ? (double) errors / attempted : 0,
+        dropped.sum(),
+        Percentiles.of(all),
+        byKind,
+        statusCounts);
+  }
+
+  private static long micros(long nanos) {
+    return Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+  }
+
+  private static final class KindResults {
+    final ConcurrentHistogram latency = new ConcurrentHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    final LongAdder ok = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder failures = new LongAdder();
+  }
+
+  /**
+   * Latency percentiles in milliseconds.
+   */
+  record Percentiles(double p50, double p90, double p99, double p999, double max) {
+
+    static Percentiles of(Histogram histogram) {
+      return new Percentiles(
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(90)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+      return micros / 1000.0;
+    }
+  }
+
+  record KindSummary(long requests, long errors, Percentiles latencyMs) {
+  }
+
+  /**
+   * Outcome of the measured part of a run, also the shape of the results and baseline JSON.
+   */
+  record Summary(double seconds, long requests, double throughput, double errorRate, long dropped,
+      Percentiles latencyMs, Map<String, KindSummary> kinds, Map<Integer, Long> statuses) {
+
+    /**
+     * Threshold violations, then regressions against the baseline run when there is one.
+     */
+    List<String> check(LoadTestSettings settings, Summary baseline) {
+      List<String> violations = new ArrayList<>();
+      double maxP99Ms = settings.maxP99().toNanos() / 1_000_000.0;
+      if (requests == 0) {
+        violations.add("no requests completed");
+        return violations;
+      }
+      if (latencyMs.p99() > maxP99Ms) {
+        violations.add(String.format("p99 %.1f ms above max-p99 %.1f ms", latencyMs.p99(), maxP99Ms));
+      }
+      if (errorRate > settings.maxErrorRate()) {
+        violations.add(String.format("error rate %.4f above max-error-rate %.4f", errorRate, settings.maxErrorRate()));
+      }
+      if (settings.minThroughput() > 0 && throughput < settings.minThroughput()) {
+        violations.add(String.format("throughput %.1f/s below min-throughput %.1f/s", throughput,
+            settings.minThroughput()));
+      }
+      if (baseline != null) {
+        double tolerance = settings.tolerance();
+        if (throughput < baseline.throughput() * (1 - tolerance)) {
+          violations.add(String.format("throughput %.1f/s -> %.1f/s against the baseline", baseline.throughput(),
+              throughput));
+        }
+        if (latencyMs.p99() > baseline.latencyMs().p99() * (1 + tolerance)) {
+          violations.add(String.format("p99 %.1f ms -> %.1f ms against the baseline", baseline.latencyMs().p99(),
+              latencyMs.p99()));
+        }
+        // Error rates near zero vary too much for a relative tolerance, compare absolute points
+        if (errorRate > baseline.errorRate() + tolerance / 100) {
+          violations.add(String.format("error rate %.4f -> %.4f against the baseline", baseline.errorRate(),
+              errorRate));
+        }
+      }
+      return violations;
+    }
+  }
+}
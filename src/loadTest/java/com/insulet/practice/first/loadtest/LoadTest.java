@@ -0,0 +1,124 @@
+package com.insulet.practice.first.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insulet.practice.first.FirstApplication;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Load and soak test of GET /data-share/v1/customers/{customerId}, run with ./gradlew loadTest.
+ * Boots the application against embedded H2 with the test configuration and seed data, or against
+ * another database through loadtest.app.spring.datasource.*, unless loadtest.target points at a
+ * running instance. Prints a line per report interval and a summary, writes the summary to
+ * loadtest.results and exits non-zero when a threshold is exceeded or the run regressed against
+ * loadtest.baseline.
+ */
+public final class LoadTest {
+
+  private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private LoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.from(System.getProperties());
+    System.out.printf("%s model, %s, mix %s, customers %s, warmup %s, duration %s%n",
+        settings.model().name().toLowerCase(),
+        settings.model() == LoadTestSettings.Model.OPEN
+            ? settings.rate() + " req/s"
+            : settings.concurrency() + " clients",
+        settings.mix(), settings.customers(), settings.warmup(), settings.duration());
+
+    ConfigurableApplicationContext context = settings.target() == null ? boot(settings) : null;
+    LoadResults results = new LoadResults();
+    double seconds;
+    Double peakInFlight = null;
+    String executionMode = null;
+    try {
+      URI baseUri = context != null
+          ? URI.create("http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port")
+              + "/data-share/v1")
+          : URI.create(settings.target());
+      seconds = new LoadGenerator(settings, baseUri, results).run();
+      if (context != null) {
+        Gauge peak = context.getBean(MeterRegistry.class).find("customer.requests.inflight.peak").gauge();
+        peakInFlight = peak != null ? peak.value() : null;
+        executionMode = context.getEnvironment().getProperty("application.request.execution.mode");
+      }
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+
+    LoadResults.Summary summary = results.summarize(seconds);
+    print(summary);
+    if (peakInFlight != null) {
+      // Compared across application.request.execution.mode runs together with p99
+      System.out.printf("peak in-flight %.0f (execution mode %s)%n", peakInFlight, executionMode);
+    }
+    Files.createDirectories(settings.results().toAbsolutePath().getParent());
+    JSON.writeValue(settings.results().toFile(), summary);
+
+    List<String> violations = summary.check(settings, baseline(settings));
+    if (!violations.isEmpty()) {
+      System.err.println("Load test failed:\n  " + String.join("\n  ", violations));
+      System.exit(1);
+    }
+    System.exit(0);
+  }
+
+  private static ConfigurableApplicationContext boot(LoadTestSettings settings) {
+    List<String> properties = new ArrayList<>(List.of(
+        "server.port=0",
+        "logging.level.root=WARN",
+        "logging.level.org.apache.camel=WARN",
+        "management.statsd.metrics.export.enabled=false",
+        // The spool directory is locked while open, keep it out of the working directory
+        "application.request.audit.spool.directory=${java.io.tmpdir}/first-audit-spool-${random.uuid}",
+        // Every request comes from one client for a handful of customers, the limiter would answer most with 429
+        "application.request.rate-limit.enabled=false"));
+    for (Map.Entry<String, String> entry : settings.app().entrySet()) {
+      properties.add(entry.getKey() + "=" + entry.getValue());
+    }
+    return new SpringApplicationBuilder(FirstApplication.class)
+        .profiles(settings.profiles().toArray(new String[0]))
+        .properties(properties.toArray(new String[0]))
+        .run();
+  }
+
+  private static LoadResults.Summary baseline(LoadTestSettings settings) throws IOException {
+    if (settings.baseline() == null || !Files.exists(settings.baseline())) {
+      return null;
+    }
+    return JSON.readValue(settings.baseline().toFile(), LoadResults.Summary.class);
+  }
+
+  private static void print(LoadResults.Summary summary) {
+    System.out.printf("%n%d requests in %.1fs, %.1f req/s, error rate %.4f (%d dropped)%n",
+        summary.requests(), summary.seconds(), summary.throughput(), summary.errorRate(), summary.dropped());
+    System.out.printf("%-14s %9s %8s %9s %9s %9s %9s %9s%n",
+        "", "requests", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    row("all", summary.requests(), -1, summary.latencyMs());
+    summary.kinds().forEach((kind, result) -> row(kind, result.requests(), result.errors(), result.latencyMs()));
+    System.out.println("statuses " + summary.statuses());
+  }
+
+  private static void row(String name, long requests, long errors, LoadResults.Percentiles latency) {
+    System.out.printf("%-14s %9d %8s %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, requests,
+        errors < 0 ? "" : Long.toString(errors), latency.p50(), latency.p90(), latency.p99(), latency.p999(),
+        latency.max());
+  }
+}
@@ -0,0 +1,92 @@
+package com.insulet.practice.first.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Run settings, read from loadtest.* system properties. ./gradlew loadTest forwards every
+ * -Ploadtest.* project property, so {@code -Ploadtest.rate=500} sets {@link #rate()}.
+ * Properties under loadtest.app.* are handed to the application being booted with the prefix
+ * removed, e.g. {@code -Ploadtest.app.application.request.execution.mode=reactive}.
+ */
+record LoadTestSettings(
+    String target,
+    List<String> profiles,
+    Map<String, String> app,
+    Model model,
+    double rate,
+    int concurrency,
+    int maxOutstanding,
+    Duration warmup,
+    Duration duration,
+    Duration reportInterval,
+    Duration requestTimeout,
+    RequestMix mix,
+    List<String> customers,
+    Duration maxP99,
+    double maxErrorRate,
+    double minThroughput,
+    Path results,
+    Path baseline,
+    double tolerance) {
+
+  static final String PREFIX = "loadtest.";
+  static final String APP_PREFIX = PREFIX + "app.";
+
+  /**
+   * Open: requests start at a fixed rate whether or not earlier ones have answered, latency is
+   * measured from the scheduled start. Closed: a fixed number of clients, each sending its next
+   * request when the previous one answers.
+   */
+  enum Model {
+    OPEN,
+    CLOSED
+  }
+
+  static LoadTestSettings from(Properties properties) {
+    Map<String, String> app = new LinkedHashMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      if (name.startsWith(APP_PREFIX)) {
+        app.put(name.substring(APP_PREFIX.length()), properties.getProperty(name));
+      }
+    }
+    String profiles = get(properties, "profiles", "");
+    String baseline = get(properties, "baseline", "");
+    return new LoadTestSettings(
+        get(properties, "target", null), // base URL of a running instance; unset boots the application
+        profiles.isBlank() ? List.of() : List.of(profiles.split(",")),
+        Map.copyOf(app),
+        Model.valueOf(get(properties, "model", "open").toUpperCase(Locale.ROOT)),
+        Double.parseDouble(get(properties, "rate", "200")), // requests per second, open model
+        Integer.parseInt(get(properties, "concurrency", "32")), // clients, closed model
+        Integer.parseInt(get(properties, "max-outstanding", "2000")), // open model, later arrivals are dropped
+        duration(properties, "warmup", "10s"),
+        duration(properties, "duration", "60s"),
+        duration(properties, "report-interval", "10s"),
+        duration(properties, "request-timeout", "5s"),
+        RequestMix.parse(get(properties, "mix", "valid=90,invalid-dates=5,max-limit=5")),
+        List.of(get(properties, "customers", "CUST123,CUST789").split(",")),
+        duration(properties, "max-p99", "250ms"),
+        Double.parseDouble(get(properties, "max-error-rate", "0.01")),
+        Double.parseDouble(get(properties, "min-throughput", "0")), // requests per second, 0 = not checked
+        Path.of(get(properties, "results", "build/results/loadtest/results.json")),
+        baseline.isBlank() ? null : Path.of(baseline),
+        Double.parseDouble(get(properties, "tolerance", "0.10")));
+  }
+
+  private static String get(Properties properties, String name, String defaultValue) {
+    String value = properties.getProperty(PREFIX + name);
+    return value != null ? value.trim() : defaultValue;
+  }
+
+  private static Duration duration(Properties properties, String name, String defaultValue) {
+    return DurationStyle.detectAndParse(get(properties, name, defaultValue));
+  }
+}
@@ -0,0 +1,108 @@
+package com.insulet.practice.first.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted choice between the request kinds, parsed from {@code kind=weight,...}. Weights are
+ * relative and need not add up to 100.
+ */
+final class RequestMix {
+
+  enum Kind {
+    // A year of records, the shape most clients send
+    VALID("valid", 200,
+        "startDate=2024-01-01T00:00:00.000Z&endDate=2024-12-31T23:59:59.999Z&limit=100"),
+    // Start after end, answered with 400 before the audit insert or the lookup
+    INVALID_DATES("invalid-dates", 400,
+        "startDate=2024-12-31T00:00:00.000Z&endDate=2024-01-01T00:00:00.000Z"),
+    // Largest page a client may ask for
+    MAX_LIMIT("max-limit", 200, "limit=500");
+
+    final String label;
+    final int expectedStatus;
+    final String query;
+
+    Kind(String label, int expectedStatus, String query) {
+      this.label = label;
+      this.expectedStatus = expectedStatus;
+      this.query = query;
+    }
+
+    static Kind of(String label) {
+      for (Kind kind : values()) {
+        if (kind.label.equals(label)) {
+          return kind;
+        }
+      }
+      throw new IllegalArgumentException("Unknown request kind '" + label + "', expected one of "
+          + Arrays.stream(values()).map(kind -> kind.label).toList());
+    }
+  }
+
+  private final Kind[] kinds;
+  private final double[] cumulative;
+
+  private RequestMix(Kind[] kinds, double[] cumulative) {
+    this.kinds = kinds;
+    this.cumulative = cumulative;
+  }
+
+  static RequestMix parse(String spec) {
+    Map<Kind, Double> weights = new EnumMap<>(Kind.class);
+    for (String entry : spec.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Request mix entry '" + entry + "' is not kind=weight");
+      }
+      double weight = Double.parseDouble(parts[1].trim());
+      if (weight < 0) {
+        throw new IllegalArgumentException("Request mix weight of " + parts[0].trim() + " is negative");
+      }
+      weights.merge(Kind.of(parts[0].trim()), weight, Double::sum);
+    }
+
+    List<Kind> kinds = new ArrayList<>();
+    double[] cumulative = new double[weights.size()];
+    double total = 0;
+    for (Map.Entry<Kind, Double> entry : weights.entrySet()) {
+      if (entry.getValue() > 0) {
+        total += entry.getValue();
+        cumulative[kinds.size()] = total;
+        kinds.add(entry.getKey());
+      }
+    }
+    if (kinds.isEmpty()) {
+      throw new IllegalArgumentException("Request mix '" + spec + "' has no positive weight");
+    }
+    return new RequestMix(kinds.toArray(new Kind[0]), Arrays.copyOf(cumulative, kinds.size()));
+  }
+
+  Kind next() {
+    double point = ThreadLocalRandom.current().nextDouble(cumulative[cumulative.length - 1]);
+    for (int i = 0; i < cumulative.length - 1; i++) {
+      if (point < cumulative[i]) {
+        return kinds[i];
+      }
+    }
+    return kinds[kinds.length - 1];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    double previous = 0;
+    for (int i = 0; i < kinds.length; i++) {
+      if (i > 0) {
+        text.append(',');
+      }
+      text.append(kinds[i].label).append('=').append(cumulative[i] - previous);
+      previous = cumulative[i];
+    }
+    return text.toString();
+  }
+}
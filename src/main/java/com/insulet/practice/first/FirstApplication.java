@@ -2,8 +2,10 @@ package com.insulet.practice.first;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// The reactive repository owns its R2DBC pool, a ConnectionFactory bean would replace the JDBC DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class FirstApplication {
 
   public static void main(String[] args) {
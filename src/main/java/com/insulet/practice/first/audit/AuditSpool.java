@@ -0,0 +1,406 @@
+package com.insulet.practice.first.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.insulet.practice.first.model.CustomerRequest;
+
+/**
+ * Append-only log of customer requests in memory-mapped segment files, kept while customer_requests
+ * cannot be written. A single consumer reads the records back in append order and acknowledges
+ * them; its position lives in a checkpoint file, so spooled requests survive a crash or restart.
+ *
+ * <p>A record is its payload length, the CRC32 of the payload and the payload. The length is
+ * written last, so a record is either complete or invisible, and a torn or corrupt record ends its
+ * segment. Every open appends to a new segment, so nothing is ever written behind the remains of a
+ * write cut off by a crash. Delivery is at least once: a crash between writing a batch to the
+ * database and acknowledging it replays that batch.
+ *
+ * <p>An open spool holds an exclusive lock on its directory, so a second process pointed at the
+ * same directory fails to open it instead of replaying and deleting the first one's records.
+ */
+final class AuditSpool implements Closeable {
+
+  static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String LOCK_FILE = "lock";
+  // generation, segment, offset, CRC32 of the first three; two slots written alternately
+  private static final int CHECKPOINT_SLOT_BYTES = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+  record Entry(CustomerRequest request, long recordedAtMillis) {
+  }
+
+  record Position(long segment, int offset) {
+  }
+
+  record Batch(List<Entry> entries, Position next) {
+  }
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final NavigableSet<Long> segments = new TreeSet<>();
+
+  private final FileChannel lock;
+  private final MappedByteBuffer checkpoint;
+  private long checkpointGeneration;
+
+  private long writeSegment;
+  private MappedByteBuffer writeBuffer;
+  private int writeOffset;
+  private boolean unforced;
+
+  private Position readPosition;
+  private long readSegment = -1;
+  private ByteBuffer readBuffer;
+
+  // Read without the lock on every audit write to decide whether to bypass the database
+  private volatile boolean pending;
+
+  AuditSpool(Path directory, int segmentSize, long maxBytes) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = (int) Math.min(Integer.MAX_VALUE, Math.max(2, maxBytes / segmentSize));
+
+    Files.createDirectories(directory);
+    this.lock = lock(directory);
+    try {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.mapToLong(AuditSpool::segmentId).filter(id -> id >= 0).forEach(segments::add);
+      }
+      try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, 2L * CHECKPOINT_SLOT_BYTES);
+      }
+
+      Position saved = readCheckpoint();
+      if (saved != null) {
+        // Fully replayed, a crash kept them from being deleted
+        deleteBefore(saved.segment());
+      }
+      long next = segments.isEmpty() ? 0 : segments.last() + 1;
+      if (saved != null) {
+        next = Math.max(next, saved.segment() + 1);
+      }
+      openWriteSegment(next);
+
+      Position position = saved != null && segments.contains(saved.segment()) ? saved : new Position(segments.first(), 0);
+      // Skip the acknowledged rest of older segments, so a fully replayed spool reopens empty
+      while (position.segment() != writeSegment && recordLength(segmentBuffer(position.segment()), position.offset()) < 0) {
+        Long following = segments.higher(position.segment());
+        position = new Position(following != null ? following : writeSegment, 0);
+      }
+      if (!position.equals(saved)) {
+        writeCheckpoint(position);
+        deleteBefore(position.segment());
+        readSegment = -1;
+        readBuffer = null;
+      }
+      readPosition = position;
+      updatePending();
+    } catch (IOException | RuntimeException e) {
+      lock.close();
+      throw e;
+    }
+  }
+
+  private static FileChannel lock(Path directory) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock acquired = null;
+    try {
+      acquired = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Held by another spool in this JVM
+    } finally {
+      if (acquired == null) {
+        channel.close();
+      }
+    }
+    if (acquired == null) {
+      throw new IOException("Audit spool " + directory + " is in use by another process");
+    }
+    // Released when the channel is closed
+    return channel;
+  }
+
+  /**
+   * Appends the entry, or returns false without writing when the spool has reached its maximum
+   * size.
+   */
+  synchronized boolean append(Entry entry) throws IOException {
+    byte[] payload = encode(entry);
+    int needed = HEADER_BYTES + payload.length;
+    if (needed > segmentSize) {
+      throw new IllegalArgumentException("Spool record of " + needed + " bytes exceeds the segment size");
+    }
+    if (writeOffset + needed > segmentSize) {
+      if (segments.size() >= maxSegments) {
+        return false;
+      }
+      writeBuffer.force();
+      openWriteSegment(writeSegment + 1);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    writeBuffer.put(writeOffset + HEADER_BYTES, payload);
+    writeBuffer.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+    writeBuffer.putInt(writeOffset, payload.length);
+    writeOffset += needed;
+    unforced = true;
+    pending = true;
+    return true;
+  }
+
+  /**
+   * Up to max entries from the consumer position on, without consuming them.
+   */
+  synchronized Batch read(int max) throws IOException {
+    List<Entry> entries = new ArrayList<>(Math.min(max, 64));
+    long segment = readPosition.segment();
+    int offset = readPosition.offset();
+    while (entries.size() < max && !(segment == writeSegment && offset >= writeOffset)) {
+      ByteBuffer buffer = segmentBuffer(segment);
+      int length = recordLength(buffer, offset);
+      if (length < 0) {
+        // Rest of a segment that filled up or was cut off by a crash, continue with the next one
+        Long following = segments.higher(segment);
+        segment = following != null ? following : writeSegment;
+        offset = 0;
+        continue;
+      }
+      entries.add(decode(buffer.slice(offset + HEADER_BYTES, length), length));
+      offset += HEADER_BYTES + length;
+    }
+    return new Batch(entries, new Position(segment, offset));
+  }
+
+  /**
+   * Moves the consumer position past the batch and deletes the segments it finished.
+   */
+  synchronized void acknowledge(Batch batch) throws IOException {
+    Position next = batch.next();
+    writeCheckpoint(next);
+    readPosition = next;
+    deleteBefore(next.segment());
+    if (readSegment < next.segment()) {
+      readSegment = -1;
+      readBuffer = null;
+    }
+    updatePending();
+  }
+
+  boolean isEmpty() {
+    return !pending;
+  }
+
+  /**
+   * Approximate bytes not yet acknowledged.
+   */
+  synchronized long pendingBytes() {
+    return (writeSegment - readPosition.segment()) * segmentSize + writeOffset - readPosition.offset();
+  }
+
+  /**
+   * Flushes appended records to the file, so they also survive a crash of the operating system.
+   */
+  synchronized void force() {
+    if (unforced) {
+      writeBuffer.force();
+      unforced = false;
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    force();
+    checkpoint.force();
+    try {
+      lock.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void openWriteSegment(long id) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentPath(id),
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // Mapping past the end grows the file, the new region reads as zeros (no record)
+      writeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+    writeSegment = id;
+    writeOffset = 0;
+    segments.add(id);
+  }
+
+  private ByteBuffer segmentBuffer(long segment) throws IOException {
+    if (segment == writeSegment) {
+      return writeBuffer;
+    }
+    if (segment != readSegment) {
+      try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+        readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      readSegment = segment;
+    }
+    return readBuffer;
+  }
+
+  /**
+   * Payload length of the record at offset, or -1 when there is no complete, intact record.
+   */
+  static int recordLength(ByteBuffer buffer, int offset) {
+    if (offset + HEADER_BYTES > buffer.capacity()) {
+      return -1;
+    }
+    int length = buffer.getInt(offset);
+    if (length <= 0 || length > buffer.capacity() - offset - HEADER_BYTES) {
+      return -1;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(offset + HEADER_BYTES, length));
+    return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? length : -1;
+  }
+
+  private void deleteBefore(long segment) throws IOException {
+    for (Long old : new ArrayList<>(segments.headSet(segment, false))) {
+      Files.deleteIfExists(segmentPath(old));
+      segments.remove(old);
+    }
+  }
+
+  private void updatePending() {
+    pending = !(readPosition.segment() == writeSegment && readPosition.offset() >= writeOffset);
+  }
+
+  private Position readCheckpoint() {
+    Position latest = null;
+    for (int slot = 0; slot < 2; slot++) {
+      int base = slot * CHECKPOINT_SLOT_BYTES;
+      long generation = checkpoint.getLong(base);
+      long segment = checkpoint.getLong(base + Long.BYTES);
+      int offset = checkpoint.getInt(base + 2 * Long.BYTES);
+      // A slot torn by a crash fails its checksum and the other, older slot is used
+      if (generation > checkpointGeneration
+          && checkpoint.getInt(base + 2 * Long.BYTES + Integer.BYTES) == checkpointCrc(generation, segment, offset)) {
+        checkpointGeneration = generation;
+        latest = new Position(segment, offset);
+      }
+    }
+    return latest;
+  }
+
+  private void writeCheckpoint(Position position) {
+    long generation = ++checkpointGeneration;
+    int base = (int) (generation % 2) * CHECKPOINT_SLOT_BYTES;
+    checkpoint.putLong(base, generation);
+    checkpoint.putLong(base + Long.BYTES, position.segment());
+    checkpoint.putInt(base + 2 * Long.BYTES, position.offset());
+    checkpoint.putInt(base + 2 * Long.BYTES + Integer.BYTES,
+        checkpointCrc(generation, position.segment(), position.offset()));
+    // Segments are deleted after this, the checkpoint has to be on disk first
+    checkpoint.force();
+  }
+
+  private static int checkpointCrc(long generation, long segment, int offset) {
+    ByteBuffer fields = ByteBuffer.allocate(2 * Long.BYTES + Integer.BYTES)
+        .putLong(generation)
+        .putLong(segment)
+        .putInt(offset)
+        .flip();
+    CRC32 crc = new CRC32();
+    crc.update(fields);
+    return (int) crc.getValue();
+  }
+
+  private Path segmentPath(long id) {
+    return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+  }
+
+  private static long segmentId(Path path) {
+    String name = path.getFileName().toString();
+    if (!name.endsWith(SEGMENT_SUFFIX)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  static byte[] encode(Entry entry) {
+    CustomerRequest request = entry.request();
+    byte[] customerId = utf8(request.getCustomerId());
+    byte[] startDate = utf8(request.getStartDate());
+    byte[] endDate = utf8(request.getEndDate());
+    int size = Long.BYTES + 3 * Integer.BYTES + length(customerId) + length(startDate) + length(endDate)
+        + 1 + 2 * Integer.BYTES;
+    ByteBuffer buffer = ByteBuffer.allocate(size).putLong(entry.recordedAtMillis());
+    putString(buffer, customerId);
+    putString(buffer, startDate);
+    putString(buffer, endDate);
+    buffer.put((byte) ((request.hasPage() ? 1 : 0) | (request.hasLimit() ? 2 : 0)));
+    buffer.putInt(request.getPageOrZero());
+    buffer.putInt(request.getLimitOrZero());
+    return buffer.array();
+  }
+
+  static Entry decode(ByteBuffer payload, int length) {
+    long recordedAtMillis = payload.getLong();
+    String customerId = getString(payload);
+    String startDate = getString(payload);
+    String endDate = getString(payload);
+    byte present = payload.get();
+    int page = payload.getInt();
+    int limit = payload.getInt();
+    CustomerRequest request = new CustomerRequest(customerId, startDate, endDate,
+        (present & 1) != 0 ? page : null,
+        (present & 2) != 0 ? limit : null);
+    return new Entry(request, recordedAtMillis);
+  }
+
+  private static byte[] utf8(String value) {
+    return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes != null ? bytes.length : 0;
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.putInt(-1);
+    } else {
+      buffer.putInt(bytes.length).put(bytes);
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
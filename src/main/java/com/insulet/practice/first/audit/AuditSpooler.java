@@ -0,0 +1,345 @@
+package com.insulet.practice.first.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.AuditQueueFullException;
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.CustomerRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes requests to customer_requests and, with application.request.audit.spool.enabled, keeps
+ * them in a local {@link AuditSpool} while the database is unreachable or timing out. A replayer
+ * thread writes spooled requests back in batches once it recovers, with their original created_at.
+ * As long as anything is spooled new requests are spooled behind it, so they reach the table in
+ * the order they arrived.
+ *
+ * <p>Only connection failures and timeouts are spooled. A request the database rejects would be
+ * rejected on replay too, that error goes to the caller as before.
+ */
+@Component
+public class AuditSpooler implements Processor, SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(AuditSpooler.class);
+
+  static final String REPLAY_SQL = "INSERT INTO customer_requests "
+      + "(customer_id, start_date, end_date, page, rec_limit, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AuditProperties.Spool properties;
+  private final AuditProperties auditProperties;
+
+  private final Counter spooled;
+  private final Counter replayed;
+  private final Counter discarded;
+
+  private volatile AuditSpool spool;
+  private final Object wakeup = new Object();
+  private volatile boolean running;
+  private Thread replayer;
+
+  public AuditSpooler(JdbcTemplate jdbcTemplate, AuditProperties auditProperties, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.auditProperties = auditProperties;
+    this.properties = auditProperties.getSpool();
+
+    Gauge.builder("customer.audit.spool.size", this, AuditSpooler::pendingBytes)
+        .description("Bytes of spooled customer requests not yet written to customer_requests")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    this.spooled = Counter.builder("customer.audit.spool.spooled")
+        .description("Requests written to the local spool instead of customer_requests")
+        .register(meterRegistry);
+    this.replayed = Counter.builder("customer.audit.spool.replayed")
+        .description("Spooled requests written to customer_requests")
+        .register(meterRegistry);
+    this.discarded = Counter.builder("customer.audit.spool.discarded")
+        .description("Spooled requests dropped because customer_requests rejected them")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) {
+    record(exchange.getIn().getBody(CustomerRequest.class));
+  }
+
+  public void record(CustomerRequest request) {
+    recordAll(List.of(request));
+  }
+
+  /**
+   * Inserts the requests in one JDBC batch, or spools them if the spool is in use or the database
+   * is unavailable. Throws {@link AuditQueueFullException} when they cannot be spooled for lack of
+   * space.
+   */
+  public void recordAll(List<CustomerRequest> requests) {
+    if (spilling()) {
+      spool(requests);
+      return;
+    }
+    try {
+      insert(requests);
+    } catch (DataAccessException e) {
+      if (!canSpool(e)) {
+        throw e;
+      }
+      logger.warn("customer_requests unavailable, spooling {} requests: {}", requests.size(), e.getMessage());
+      spool(requests);
+    }
+  }
+
+  /**
+   * Reactive variant of {@link #record(CustomerRequest)} around the given insert.
+   */
+  public Mono<Void> record(CustomerRequest request, Supplier<Mono<Void>> insert) {
+    if (spilling()) {
+      return Mono.fromRunnable(() -> spool(List.of(request)));
+    }
+    return Mono.defer(insert)
+        .onErrorResume(this::canSpool, e -> {
+          logger.warn("customer_requests unavailable, spooling request: {}", e.getMessage());
+          return Mono.fromRunnable(() -> spool(List.of(request)));
+        });
+  }
+
+  /**
+   * True while spooled requests wait for replay, new requests have to queue up behind them.
+   */
+  public boolean spilling() {
+    AuditSpool current = spool;
+    return current != null && !current.isEmpty();
+  }
+
+  /**
+   * Whether a failed insert can go to the spool: it is enabled and the error means the database
+   * was unreachable or too slow rather than that it rejected the row.
+   */
+  public boolean canSpool(Throwable error) {
+    return spool != null && unavailable(error);
+  }
+
+  public void spool(List<CustomerRequest> requests) {
+    AuditSpool current = spool;
+    if (current == null) {
+      throw new IllegalStateException("Audit spool is not open");
+    }
+    long recordedAt = System.currentTimeMillis();
+    try {
+      for (CustomerRequest request : requests) {
+        if (!current.append(new AuditSpool.Entry(request, recordedAt))) {
+          throw new AuditQueueFullException("Request log spool is full, retry later");
+        }
+        spooled.increment();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (properties.getForceInterval().isZero()) {
+      current.force();
+    }
+  }
+
+  static boolean unavailable(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      // DataAccessResourceFailureException covers CannotGetJdbcConnectionException
+      if (cause instanceof TransientDataAccessException
+          || cause instanceof RecoverableDataAccessException
+          || cause instanceof DataAccessResourceFailureException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void insert(List<CustomerRequest> requests) {
+    jdbcTemplate.batchUpdate(WriteBehindAuditQueue.INSERT_SQL, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        WriteBehindAuditQueue.bind(ps, requests.get(i));
+      }
+
+      @Override
+      public int getBatchSize() {
+        return requests.size();
+      }
+    });
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running || !properties.isEnabled()) {
+      return;
+    }
+    try {
+      spool = new AuditSpool(Path.of(properties.getDirectory()), (int) properties.getSegmentSize().toBytes(),
+          properties.getMaxSize().toBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open audit spool in " + properties.getDirectory(), e);
+    }
+    running = true;
+    replayer = new Thread(this::replayLoop, "customer-audit-replayer");
+    replayer.setDaemon(true);
+    replayer.start();
+  }
+
+  @Override
+  public void stop() {
+    Thread thread;
+    synchronized (this) {
+      if (!running) {
+        return;
+      }
+      running = false;
+      thread = replayer;
+    }
+    synchronized (wakeup) {
+      wakeup.notifyAll();
+    }
+    try {
+      thread.join(auditProperties.getShutdownTimeout().toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // Left in place for the next start, the spool is only ever read by the replayer
+    spool.close();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // Start before and stop after WriteBehindAuditQueue, its last batches may still need the spool
+    return -1;
+  }
+
+  private long pendingBytes() {
+    AuditSpool current = spool;
+    return current != null ? current.pendingBytes() : 0;
+  }
+
+  private void replayLoop() {
+    long replayIntervalMillis = properties.getReplayInterval().toMillis();
+    long forceIntervalMillis = properties.getForceInterval().toMillis();
+    long tickMillis = forceIntervalMillis > 0 ? Math.min(forceIntervalMillis, replayIntervalMillis) : replayIntervalMillis;
+    long nextReplay = System.currentTimeMillis() + replayIntervalMillis;
+
+    while (running) {
+      spool.force();
+      if (System.currentTimeMillis() >= nextReplay) {
+        int written;
+        do {
+          written = replayBatch();
+        } while (written > 0 && running);
+        nextReplay = System.currentTimeMillis() + replayIntervalMillis;
+      }
+      synchronized (wakeup) {
+        try {
+          if (running) {
+            wakeup.wait(tickMillis);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the next batch from the spool. Returns the number of requests taken off the spool, or -1
+   * when the database is still unavailable.
+   */
+  synchronized int replayBatch() {
+    try {
+      if (spool.isEmpty()) {
+        return 0;
+      }
+      AuditSpool.Batch batch = spool.read(properties.getReplayBatchSize());
+      List<AuditSpool.Entry> entries = batch.entries();
+      int written = entries.isEmpty() ? 0 : replay(entries);
+      if (written < 0) {
+        return -1;
+      }
+      // Also for an empty batch, it may have moved past the end of a segment cut off by a crash
+      spool.acknowledge(batch);
+      replayed.increment(written);
+      return entries.size();
+    } catch (IOException e) {
+      logger.error("Failed to read the audit spool: {}", e.getMessage());
+      return -1;
+    } catch (RuntimeException e) {
+      logger.error("Failed to replay spooled customer requests: {}", e.getMessage());
+      return -1;
+    }
+  }
+
+  // Crashing between the insert and the acknowledgement replays the batch again (at least once)
+  private int replay(List<AuditSpool.Entry> entries) {
+    try {
+      jdbcTemplate.batchUpdate(REPLAY_SQL, new BatchPreparedStatementSetter() {
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+          bindReplay(ps, entries.get(i));
+        }
+
+        @Override
+        public int getBatchSize() {
+          return entries.size();
+        }
+      });
+      return entries.size();
+    } catch (DataAccessException e) {
+      if (unavailable(e)) {
+        logger.debug("customer_requests still unavailable: {}", e.getMessage());
+        return -1;
+      }
+    }
+    // A row the database rejects would hold up the spool forever, write the batch row by row and skip it
+    int written = 0;
+    for (AuditSpool.Entry entry : entries) {
+      try {
+        jdbcTemplate.update(REPLAY_SQL, ps -> bindReplay(ps, entry));
+        written++;
+      } catch (DataAccessException e) {
+        if (unavailable(e)) {
+          return -1;
+        }
+        discarded.increment();
+        logger.error("Discarding spooled request for customer {}: {}", entry.request().getCustomerId(), e.getMessage());
+      }
+    }
+    return written;
+  }
+
+  private static void bindReplay(PreparedStatement ps, AuditSpool.Entry entry) throws SQLException {
+    WriteBehindAuditQueue.bind(ps, entry.request());
+    ps.setTimestamp(6, new Timestamp(entry.recordedAtMillis()));
+  }
+}
@@ -0,0 +1,41 @@
+package com.insulet.practice.first.audit;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.CustomerRequest;
+
+/**
+ * Records several requests in customer_requests at once, for endpoints that serve more than one
+ * customer per call. Follows application.request.audit.mode like the single-customer route.
+ */
+@Component
+public class CustomerRequestAudit {
+
+  private final AuditProperties properties;
+  private final WriteBehindAuditQueue writeBehindAuditQueue;
+  private final AuditSpooler auditSpooler;
+
+  public CustomerRequestAudit(AuditProperties properties, WriteBehindAuditQueue writeBehindAuditQueue,
+      AuditSpooler auditSpooler) {
+    this.properties = properties;
+    this.writeBehindAuditQueue = writeBehindAuditQueue;
+    this.auditSpooler = auditSpooler;
+  }
+
+  public void recordAll(List<CustomerRequest> requests) throws InterruptedException {
+    if (requests.isEmpty()) {
+      return;
+    }
+    if (properties.getMode() == AuditProperties.Mode.WRITE_BEHIND) {
+      for (CustomerRequest request : requests) {
+        writeBehindAuditQueue.submit(request);
+      }
+      return;
+    }
+    // One JDBC batch instead of one round trip per customer
+    auditSpooler.recordAll(requests);
+  }
+}
@@ -0,0 +1,163 @@
+package com.insulet.practice.first.audit;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.model.RetentionProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps the daily partitions of customer_requests in step with the clock: always creates the next
+ * {@code partitions-ahead} days and, with retention enabled, detaches, then optionally drops, the
+ * partitions that fell out of {@code retain-for}. Removing history costs one catalog change per day
+ * instead of a DELETE per row, and inserts only ever touch the current day's small indexes.
+ *
+ * <p>Only Postgres has the partitioned table; on other databases the job does nothing.
+ */
+@Component
+public class CustomerRequestPartitions {
+
+  private static final Logger logger = LoggerFactory.getLogger(CustomerRequestPartitions.class);
+
+  static final String PREFIX = "customer_requests_p";
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private static final String LIST_PARTITIONS = "SELECT child.relname FROM pg_inherits i "
+      + "JOIN pg_class parent ON parent.oid = i.inhparent "
+      + "JOIN pg_class child ON child.oid = i.inhrelid "
+      + "JOIN pg_namespace n ON n.oid = parent.relnamespace "
+      + "WHERE parent.relname = 'customer_requests' AND n.nspname = current_schema()";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final RetentionProperties properties;
+  private final boolean partitioned;
+
+  private final Counter created;
+  private final Counter expired;
+  private final Counter failed;
+
+  public CustomerRequestPartitions(JdbcTemplate jdbcTemplate, DataSource dataSource,
+      RetentionProperties properties, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.partitioned = isPostgres(dataSource);
+
+    this.created = Counter.builder("customer.requests.partitions.created")
+        .description("Daily customer_requests partitions created ahead of time")
+        .register(meterRegistry);
+    this.expired = Counter.builder("customer.requests.partitions.expired")
+        .description("Daily customer_requests partitions detached or dropped by retention")
+        .register(meterRegistry);
+    this.failed = Counter.builder("customer.requests.partitions.failed")
+        .description("Partition maintenance statements that failed")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(initialDelay = 0, fixedDelayString = "${application.request.retention.check-interval:1h}")
+  public void maintain() {
+    if (!partitioned) {
+      return;
+    }
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    for (int day = 0; day <= properties.getPartitionsAhead(); day++) {
+      createPartition(today.plusDays(day));
+    }
+
+    // Without retention every partition is kept, creating them must not wait for that decision
+    if (!properties.isEnabled()) {
+      return;
+    }
+    List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS, String.class);
+    for (String partition : expired(partitions, today, properties.getRetainFor().toDays())) {
+      expire(partition);
+    }
+  }
+
+  /**
+   * Daily partitions whose whole day is older than {@code retainDays} before {@code today}. The
+   * default partition and tables not named by this job are never returned.
+   */
+  static List<String> expired(List<String> partitions, LocalDate today, long retainDays) {
+    LocalDate cutoff = today.minusDays(retainDays);
+    List<String> expired = new ArrayList<>();
+    for (String partition : partitions) {
+      LocalDate day = dayOf(partition);
+      if (day != null && !day.plusDays(1).isAfter(cutoff)) {
+        expired.add(partition);
+      }
+    }
+    return expired;
+  }
+
+  static String partitionName(LocalDate day) {
+    return PREFIX + SUFFIX.format(day);
+  }
+
+  static LocalDate dayOf(String partition) {
+    if (!partition.startsWith(PREFIX) || partition.length() != PREFIX.length() + 8) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(partition.substring(PREFIX.length()), SUFFIX);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private void createPartition(LocalDate day) {
+    String sql = "CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF customer_requests "
+        + "FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" + day.plusDays(1) + " 00:00:00+00')";
+    try {
+      jdbcTemplate.execute(sql);
+      created.increment();
+    } catch (DataAccessException e) {
+      // Typically rows for this day already sit in the default partition because the job was down
+      failed.increment();
+      logger.warn("Could not create partition {}: {}", partitionName(day), e.getMessage());
+    }
+  }
+
+  private void expire(String partition) {
+    try {
+      jdbcTemplate.execute("ALTER TABLE customer_requests DETACH PARTITION " + partition);
+      if (properties.getMode() == RetentionProperties.Mode.DROP) {
+        jdbcTemplate.execute("DROP TABLE " + partition);
+      }
+      expired.increment();
+      logger.info("Retention {} partition {}",
+          properties.getMode() == RetentionProperties.Mode.DROP ? "dropped" : "detached", partition);
+    } catch (DataAccessException e) {
+      failed.increment();
+      logger.warn("Could not expire partition {}: {}", partition, e.getMessage());
+    }
+  }
+
+  private static boolean isPostgres(DataSource dataSource) {
+    try {
+      String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+      return "PostgreSQL".equals(product);
+    } catch (MetaDataAccessException e) {
+      logger.warn("Could not detect the database, partition maintenance is off: {}", e.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package com.insulet.practice.first.audit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.AuditQueueFullException;
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.CustomerRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Buffers validated requests in a bounded queue and writes them to customer_requests in JDBC
+ * batches from a single flusher thread. Batches that cannot reach the database go to the
+ * {@link AuditSpooler} when its spool is enabled.
+ */
+@Component
+public class WriteBehindAuditQueue implements Processor, SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(WriteBehindAuditQueue.class);
+
+  static final String INSERT_SQL = "INSERT INTO customer_requests (customer_id, start_date, end_date, page, rec_limit) "
+      + "VALUES (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AuditProperties properties;
+  private final AuditSpooler spooler;
+  private final BlockingQueue<CustomerRequest> queue;
+
+  private final Timer batchLatency;
+  private final DistributionSummary batchSize;
+  private final Counter rejected;
+  private final Counter failed;
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  public WriteBehindAuditQueue(JdbcTemplate jdbcTemplate, AuditProperties properties, AuditSpooler spooler,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.spooler = spooler;
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+    Gauge.builder("customer.audit.queue.depth", queue, BlockingQueue::size)
+        .description("Customer requests waiting to be written to customer_requests")
+        .register(meterRegistry);
+    this.batchLatency = Timer.builder("customer.audit.batch.latency")
+        .description("Time taken to write one batch to customer_requests")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.batchSize = DistributionSummary.builder("customer.audit.batch.size")
+        .description("Rows written per batch")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("customer.audit.rejected")
+        .description("Requests rejected because the audit queue was full")
+        .register(meterRegistry);
+    this.failed = Counter.builder("customer.audit.failed")
+        .description("Rows dropped because their batch could not be written")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    submit(exchange.getIn().getBody(CustomerRequest.class));
+  }
+
+  /**
+   * Queues the request for the next batch, or throws {@link AuditQueueFullException} if the queue
+   * stays full past the overflow policy.
+   */
+  public void submit(CustomerRequest request) throws InterruptedException {
+    if (!enqueue(request)) {
+      rejected.increment();
+      throw new AuditQueueFullException("Request log is saturated, retry later");
+    }
+  }
+
+  boolean enqueue(CustomerRequest request) throws InterruptedException {
+    if (!running) {
+      return false;
+    }
+    if (properties.getOverflowPolicy() == AuditProperties.OverflowPolicy.REJECT) {
+      return queue.offer(request);
+    }
+    return queue.offer(request, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public synchronized void start() {
+    // Sync mode inserts on the request thread, no flusher to run
+    if (running || properties.getMode() != AuditProperties.Mode.WRITE_BEHIND) {
+      return;
+    }
+    running = true;
+    flusher = new Thread(this::drainLoop, "customer-audit-flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  @Override
+  public void stop() {
+    Thread thread;
+    synchronized (this) {
+      if (!running) {
+        return;
+      }
+      running = false;
+      thread = flusher;
+    }
+    try {
+      thread.join(properties.getShutdownTimeout().toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      logger.warn("Audit queue not fully drained on shutdown, {} requests dropped", queue.size());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // Stop after the web server and Camel routes so no request is enqueued once draining starts
+    return 0;
+  }
+
+  int depth() {
+    return queue.size();
+  }
+
+  private void drainLoop() {
+    int maxBatch = properties.getBatchSize();
+    long flushIntervalNanos = properties.getFlushInterval().toNanos();
+    List<CustomerRequest> batch = new ArrayList<>(maxBatch);
+
+    while (running || !queue.isEmpty()) {
+      try {
+        CustomerRequest first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatch) {
+          queue.drainTo(batch, maxBatch - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= maxBatch || remaining <= 0 || !running) {
+            break;
+          }
+          CustomerRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (RuntimeException e) {
+        failed.increment(batch.size());
+        logger.error("Failed to write {} customer requests: {}", batch.size(), e.getMessage());
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<CustomerRequest> batch) {
+    if (spooler.spilling()) {
+      spooler.spool(batch);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+          bind(ps, batch.get(i));
+        }
+
+        @Override
+        public int getBatchSize() {
+          return batch.size();
+        }
+      });
+    } catch (DataAccessException e) {
+      if (!spooler.canSpool(e)) {
+        throw e;
+      }
+      logger.warn("customer_requests unavailable, spooling {} requests: {}", batch.size(), e.getMessage());
+      spooler.spool(batch);
+      return;
+    }
+    batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSize.record(batch.size());
+  }
+
+  static void bind(PreparedStatement ps, CustomerRequest request) throws SQLException {
+    ps.setString(1, request.getCustomerId());
+    ps.setString(2, request.getStartDate());
+    ps.setString(3, request.getEndDate());
+    if (request.hasPage()) {
+      ps.setInt(4, request.getPageOrZero());
+    } else {
+      ps.setNull(4, Types.INTEGER);
+    }
+    if (request.hasLimit()) {
+      ps.setInt(5, request.getLimitOrZero());
+    } else {
+      ps.setNull(5, Types.INTEGER);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.insulet.practice.first.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Applies application.datasource to the Hikari pool before it opens its first connection: sizing
+ * from the request concurrency limit, fail-fast acquire and leak detection, and pgjdbc statement
+ * caching. JdbcTemplate gets the per-query timeout. Pool metrics (hikaricp.connections.*) come from
+ * the actuator auto-configuration once the pool is a HikariDataSource.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+  private static final String POSTGRES_URL_PREFIX = "jdbc:postgresql:";
+
+  // Static and lazily resolved so the post-processor does not pull the properties beans in early
+  @Bean
+  static BeanPostProcessor connectionPoolCustomizer(ObjectProvider<ConnectionPoolProperties> poolProperties,
+      ObjectProvider<ExecutionProperties> executionProperties) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+          customize(dataSource, poolProperties.getObject(), executionProperties.getObject());
+        } else if (bean instanceof JdbcTemplate jdbcTemplate) {
+          jdbcTemplate.setQueryTimeout(queryTimeoutSeconds(poolProperties.getObject()));
+        }
+        return bean;
+      }
+    };
+  }
+
+  public static void customize(HikariDataSource dataSource, ConnectionPoolProperties pool, ExecutionProperties execution) {
+    int size = poolSize(pool, execution, dataSource.getMaximumPoolSize());
+    dataSource.setMaximumPoolSize(size);
+    if (dataSource.getMinimumIdle() > size) {
+      dataSource.setMinimumIdle(size);
+    }
+    dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+    dataSource.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+
+    String url = dataSource.getJdbcUrl();
+    if (url != null && url.startsWith(POSTGRES_URL_PREFIX)) {
+      dataSource.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+      dataSource.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+      dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB",
+          pool.getPreparedStatementCacheSize().toMegabytes());
+    }
+    logger.info("Connection pool {}: maximum {} connections, acquire timeout {} ms, leak detection {} ms",
+        dataSource.getPoolName(), size, dataSource.getConnectionTimeout(), dataSource.getLeakDetectionThreshold());
+  }
+
+  /**
+   * An explicit size wins; otherwise every admitted request can hold a connection and the headroom
+   * covers work outside the request limit. Without a request limit the configured pool is kept; in
+   * virtual mode {@link com.insulet.practice.first.processors.ConcurrencyLimiter} then admits the
+   * pool size minus the headroom.
+   */
+  static int poolSize(ConnectionPoolProperties pool, ExecutionProperties execution, int configured) {
+    if (pool.getMaximumPoolSize() > 0) {
+      return pool.getMaximumPoolSize();
+    }
+    if (execution.getMaxConcurrent() > 0) {
+      return execution.getMaxConcurrent() + Math.max(0, pool.getHeadroom());
+    }
+    return configured;
+  }
+
+  public static int queryTimeoutSeconds(ConnectionPoolProperties pool) {
+    // JDBC timeouts are whole seconds, round up so a sub-second setting does not turn into "none"
+    long millis = pool.getQueryTimeout().toMillis();
+    return millis <= 0 ? -1 : (int) Math.max(1, (millis + 999) / 1000);
+  }
+}
@@ -0,0 +1,25 @@
+package com.insulet.practice.first.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.repository.ReplicaRouter;
+
+/**
+ * Points the customer read queries at the replica router. Writes keep using the auto-configured
+ * JdbcTemplate and the primary DataSource bean, which this deliberately does not replace.
+ */
+@Configuration
+public class ReplicaConfig {
+
+  @Bean
+  public NamedParameterJdbcTemplate customerReadJdbcTemplate(ReplicaRouter replicaRouter,
+      ConnectionPoolProperties poolProperties) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(replicaRouter.readDataSource());
+    jdbcTemplate.setQueryTimeout(ConnectionPoolConfig.queryTimeoutSeconds(poolProperties));
+    return new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+}
@@ -0,0 +1,13 @@
+package com.insulet.practice.first.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background maintenance jobs: customer_requests partition retention, read replica checks and
+ * shard peer refreshes. Each job returns early when its feature is disabled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
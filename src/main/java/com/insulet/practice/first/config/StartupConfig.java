@@ -0,0 +1,26 @@
+package com.insulet.practice.first.config;
+
+import org.apache.camel.RoutesBuilder;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.insulet.practice.first.audit.CustomerRequestPartitions;
+import com.insulet.practice.first.repository.ReplicaRouter;
+
+/**
+ * Beans that stay eager when spring.main.lazy-initialization is on (the fast-startup profile). The
+ * routes pull in everything a request touches, so the first request does not pay for creating it.
+ * Scheduled jobs would never be registered if nothing created them, and lifecycle beans have to
+ * exist to be started.
+ */
+@Configuration
+public class StartupConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBeans() {
+    return LazyInitializationExcludeFilter.forBeanTypes(RoutesBuilder.class, SmartLifecycle.class,
+        CustomerRequestPartitions.class, ReplicaRouter.class);
+  }
+}
@@ -0,0 +1,68 @@
+package com.insulet.practice.first.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Runs every HTTP request, and with it the direct: customer routes, on its own virtual thread
+ * when application.request.execution.mode=virtual. The executor is Spring Boot's own
+ * (spring.threads.virtual.enabled), which {@link Defaults} turns on for this mode.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.request.execution", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+  static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+  // pgjdbc replaced its synchronized blocks with ReentrantLock in 42.6.0; older drivers pin the
+  // carrier thread for the whole round trip and would cap throughput at the carrier count
+  private static final int MIN_PGJDBC_MAJOR = 42;
+  private static final int MIN_PGJDBC_MINOR = 6;
+
+  public VirtualThreadConfig(Environment environment) {
+    if (!environment.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+      throw new IllegalStateException("Virtual thread mode needs " + VIRTUAL_THREADS_PROPERTY
+          + "=true, it is set to false");
+    }
+    checkJdbcDriverIsPinningFree();
+  }
+
+  private static void checkJdbcDriverIsPinningFree() {
+    org.postgresql.Driver driver = new org.postgresql.Driver();
+    boolean pinningFree = driver.getMajorVersion() > MIN_PGJDBC_MAJOR
+        || (driver.getMajorVersion() == MIN_PGJDBC_MAJOR && driver.getMinorVersion() >= MIN_PGJDBC_MINOR);
+    if (!pinningFree) {
+      throw new IllegalStateException("Virtual thread mode needs pgjdbc " + MIN_PGJDBC_MAJOR + "."
+          + MIN_PGJDBC_MINOR + " or newer, found " + driver.getMajorVersion() + "." + driver.getMinorVersion());
+    }
+    logger.info("Virtual thread execution enabled (pgjdbc {}.{})", driver.getMajorVersion(),
+        driver.getMinorVersion());
+  }
+
+  /**
+   * Defaults spring.threads.virtual.enabled to true in virtual mode, so Tomcat serves requests on
+   * virtual threads and owns (and shuts down) the executor. Registered in META-INF/spring.factories;
+   * added last, so an explicit setting still wins.
+   */
+  public static class Defaults implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+      if ("virtual".equalsIgnoreCase(environment.getProperty("application.request.execution.mode"))) {
+        environment.getPropertySources().addLast(
+            new MapPropertySource("virtualThreadDefaults", Map.of(VIRTUAL_THREADS_PROPERTY, "true")));
+      }
+    }
+  }
+}
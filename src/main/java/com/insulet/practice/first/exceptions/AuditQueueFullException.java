@@ -0,0 +1,9 @@
+package com.insulet.practice.first.exceptions;
+
+public class AuditQueueFullException extends RuntimeException {
+
+  public AuditQueueFullException(String message) {
+    // Thrown under load on the request thread, the stack trace carries no useful information
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,9 @@
+package com.insulet.practice.first.exceptions;
+
+public class RateLimitExceededException extends RuntimeException {
+
+  public RateLimitExceededException(String message) {
+    // Thrown for every request over the limit, the stack trace carries no useful information
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,19 @@
+package com.insulet.practice.first.exceptions;
+
+public class RequestRejectedException extends RuntimeException {
+
+  private final int violations;
+
+  public RequestRejectedException(int violations, String message) {
+    // Bad-client storms throw this for most of the traffic, never pay for a stack trace
+    super(message, null, false, false);
+    this.violations = violations;
+  }
+
+  /**
+   * Bit set of the violated constraints, see {@code RequestPrecheck.Violation}.
+   */
+  public int getViolations() {
+    return violations;
+  }
+}
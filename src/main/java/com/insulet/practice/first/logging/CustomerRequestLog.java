@@ -0,0 +1,106 @@
+package com.insulet.practice.first.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.model.RequestLogProperties;
+
+/**
+ * Sampled request log for the customer routes. The sampling decision is made when the request
+ * enters the route; unsampled requests allocate nothing and render nothing. Fields are read from
+ * the exchange only when the sampled line is written, and the customer.requests logger is
+ * appended off-thread (see logback-spring.xml).
+ */
+@Component
+public class CustomerRequestLog {
+
+  private static final Logger requestLogger = LoggerFactory.getLogger("customer.requests");
+  private static final Logger logger = LoggerFactory.getLogger(CustomerRequestLog.class);
+
+  private final double sampleRate;
+  private final StackTraceRateLimiter stackTraces;
+  private final AtomicLong suppressedStackTraces = new AtomicLong();
+
+  private final Processor track = this::track;
+  private final Processor failure = this::failure;
+
+  public CustomerRequestLog(RequestLogProperties properties) {
+    this.sampleRate = properties.getSampleRate();
+    this.stackTraces = new StackTraceRateLimiter(properties.getStackTraceInterval().toNanos());
+  }
+
+  /**
+   * First step of a route, decides whether this request is logged.
+   */
+  public Processor track() {
+    return track;
+  }
+
+  /**
+   * Step of an onException block, logs the caught exception with a rate-limited stack trace.
+   */
+  public Processor failure() {
+    return failure;
+  }
+
+  private void track(Exchange exchange) {
+    if (sampleRate <= 0 || !requestLogger.isInfoEnabled()) {
+      return;
+    }
+    if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return;
+    }
+    exchange.getExchangeExtension().addOnCompletion(new SampledRequest(System.nanoTime()));
+  }
+
+  private void failure(Exchange exchange) {
+    Exception cause = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+    if (cause == null || !logger.isWarnEnabled()) {
+      return;
+    }
+    Integer status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+    if (status != null && status < 500) {
+      return; // client errors show up in the sampled request log with their status
+    }
+    if (stackTraces.tryAcquire(cause.getClass())) {
+      long suppressed = suppressedStackTraces.getAndSet(0);
+      logger.warn("Request failed with status {} ({} stack traces suppressed since last)", status, suppressed, cause);
+    } else {
+      suppressedStackTraces.incrementAndGet();
+      logger.warn("Request failed with status {}: {}: {}", status, cause.getClass().getSimpleName(), cause.getMessage());
+    }
+  }
+
+  private static final class SampledRequest extends SynchronizationAdapter {
+
+    private final long start;
+
+    SampledRequest(long start) {
+      this.start = start;
+    }
+
+    @Override
+    public void onDone(Exchange exchange) {
+      long durationMicros = (System.nanoTime() - start) / 1000;
+      Object status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE);
+      requestLogger.info(
+          "route={} customerId={} startDate={} endDate={} page={} limit={} cursor={} status={} durationUs={}",
+          exchange.getFromRouteId(),
+          exchange.getMessage().getHeader("customerId"),
+          exchange.getMessage().getHeader("startDate"),
+          exchange.getMessage().getHeader("endDate"),
+          exchange.getMessage().getHeader("page"),
+          exchange.getMessage().getHeader("limit"),
+          exchange.getMessage().getHeader("cursor"),
+          status != null ? status : 200,
+          durationMicros);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.insulet.practice.first.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allows one stack trace per exception type per interval. Callers log the message alone when a
+ * trace is refused, so a burst of identical failures costs one stack render instead of thousands.
+ */
+public class StackTraceRateLimiter {
+
+  private final long intervalNanos;
+  private final ConcurrentMap<Class<?>, AtomicLong> nextAllowed = new ConcurrentHashMap<>();
+
+  public StackTraceRateLimiter(long intervalNanos) {
+    this.intervalNanos = intervalNanos;
+  }
+
+  public boolean tryAcquire(Class<?> exceptionType) {
+    return tryAcquire(exceptionType, System.nanoTime());
+  }
+
+  boolean tryAcquire(Class<?> exceptionType, long now) {
+    AtomicLong next = nextAllowed.get(exceptionType);
+    if (next == null) {
+      next = nextAllowed.computeIfAbsent(exceptionType, type -> new AtomicLong(now));
+    }
+    long allowedAt = next.get();
+    return now - allowedAt >= 0 && next.compareAndSet(allowedAt, now + intervalNanos);
+  }
+}
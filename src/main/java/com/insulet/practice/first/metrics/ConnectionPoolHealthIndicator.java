@@ -0,0 +1,69 @@
+package com.insulet.practice.first.metrics;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Reports /actuator/health component connectionPool as SATURATED while threads wait for a
+ * connection or the busy share of the pool is above the saturation threshold. SATURATED is still
+ * served as 200 so a busy instance is not pulled from the load balancer; alert on it instead.
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+
+  public static final Status SATURATED = new Status("SATURATED", "Callers are waiting for database connections");
+
+  private final DataSource dataSource;
+  private final double saturationThreshold;
+
+  public ConnectionPoolHealthIndicator(DataSource dataSource, ConnectionPoolProperties properties) {
+    this.dataSource = dataSource;
+    this.saturationThreshold = properties.getSaturationThreshold();
+  }
+
+  @Override
+  public Health health() {
+    HikariDataSource hikari = unwrap();
+    if (hikari == null) {
+      return Health.unknown().withDetail("reason", "DataSource is not a Hikari pool").build();
+    }
+    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+    if (pool == null) {
+      return Health.unknown().withDetail("reason", "Pool not started yet").build();
+    }
+
+    int maximum = hikari.getMaximumPoolSize();
+    int active = pool.getActiveConnections();
+    int pending = pool.getThreadsAwaitingConnection();
+    double utilization = maximum > 0 ? (double) active / maximum : 0;
+
+    Health.Builder builder = pending > 0 || utilization >= saturationThreshold
+        ? Health.status(SATURATED)
+        : Health.up();
+    return builder
+        .withDetail("active", active)
+        .withDetail("idle", pool.getIdleConnections())
+        .withDetail("pending", pending)
+        .withDetail("maximum", maximum)
+        .withDetail("utilization", Math.round(utilization * 100) / 100.0)
+        .build();
+  }
+
+  private HikariDataSource unwrap() {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+}
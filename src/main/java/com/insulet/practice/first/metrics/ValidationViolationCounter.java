@@ -0,0 +1,53 @@
+package com.insulet.practice.first.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+
+/**
+ * Counts rejected requests per violated property and constraint, e.g.
+ * customer.validation.violations{property=limit,constraint=Max}.
+ */
+@Component
+public class ValidationViolationCounter {
+
+  private record Key(String property, Class<?> constraint) {
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<Key, Counter> counters = new ConcurrentHashMap<>();
+
+  public ValidationViolationCounter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public void count(Set<? extends ConstraintViolation<?>> violations) {
+    for (ConstraintViolation<?> violation : violations) {
+      Key key = new Key(violation.getPropertyPath().toString(),
+          violation.getConstraintDescriptor().getAnnotation().annotationType());
+      counters.computeIfAbsent(key, this::register).increment();
+    }
+  }
+
+  /**
+   * Returns the counter for one property and constraint, for callers that check constraints
+   * themselves and resolve the meter once.
+   */
+  public Counter counter(String property, Class<?> constraint) {
+    return counters.computeIfAbsent(new Key(property, constraint), this::register);
+  }
+
+  private Counter register(Key key) {
+    return Counter.builder("customer.validation.violations")
+        .description("Constraint violations on customer requests")
+        .tag("property", key.property().isEmpty() ? "request" : key.property())
+        .tag("constraint", key.constraint().getSimpleName())
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,64 @@
+package com.insulet.practice.first.model;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.adaptive-limit")
+public class AdaptiveLimitProperties {
+
+  private boolean enabled = false; // off unless configured, it answers 503 once the limit is reached
+  private int initialLimit = 50;
+  private int minLimit = 8;
+  private int maxLimit = 400;
+  private double tolerance = 2.0; // how much slower recent requests may get before the limit shrinks
+  private double smoothing = 0.2; // weight of each new estimate, lower values react more slowly
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public void setInitialLimit(int initialLimit) {
+    this.initialLimit = initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public void setMinLimit(int minLimit) {
+    this.minLimit = minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public double getTolerance() {
+    return tolerance;
+  }
+
+  public void setTolerance(double tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  public double getSmoothing() {
+    return smoothing;
+  }
+
+  public void setSmoothing(double smoothing) {
+    this.smoothing = smoothing;
+  }
+}
@@ -0,0 +1,162 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.audit")
+public class AuditProperties {
+
+  public enum Mode {
+    SYNC,
+    WRITE_BEHIND
+  }
+
+  public enum OverflowPolicy {
+    BLOCK,
+    REJECT
+  }
+
+  private Mode mode = Mode.SYNC;
+  private int queueCapacity = 10_000;
+  private int batchSize = 500;
+  private Duration flushInterval = Duration.ofMillis(200);
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private Duration offerTimeout = Duration.ofMillis(50); // max time a request blocks on a full queue
+  private Duration shutdownTimeout = Duration.ofSeconds(10);
+  private Spool spool = new Spool();
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Duration getFlushInterval() {
+    return flushInterval;
+  }
+
+  public void setFlushInterval(Duration flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public Duration getOfferTimeout() {
+    return offerTimeout;
+  }
+
+  public void setOfferTimeout(Duration offerTimeout) {
+    this.offerTimeout = offerTimeout;
+  }
+
+  public Duration getShutdownTimeout() {
+    return shutdownTimeout;
+  }
+
+  public void setShutdownTimeout(Duration shutdownTimeout) {
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  public Spool getSpool() {
+    return spool;
+  }
+
+  public void setSpool(Spool spool) {
+    this.spool = spool;
+  }
+
+  public static class Spool {
+
+    private boolean enabled = false;
+    private String directory = "audit-spool";
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+    private DataSize maxSize = DataSize.ofGigabytes(1); // past this, audit writes fail as they would without a spool
+    private Duration forceInterval = Duration.ofSeconds(1); // 0 = force every append to disk before returning
+    private Duration replayInterval = Duration.ofSeconds(5);
+    private int replayBatchSize = 500;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+      return directory;
+    }
+
+    public void setDirectory(String directory) {
+      this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+      return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+      this.segmentSize = segmentSize;
+    }
+
+    public DataSize getMaxSize() {
+      return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Duration getForceInterval() {
+      return forceInterval;
+    }
+
+    public void setForceInterval(Duration forceInterval) {
+      this.forceInterval = forceInterval;
+    }
+
+    public Duration getReplayInterval() {
+      return replayInterval;
+    }
+
+    public void setReplayInterval(Duration replayInterval) {
+      this.replayInterval = replayInterval;
+    }
+
+    public int getReplayBatchSize() {
+      return replayBatchSize;
+    }
+
+    public void setReplayBatchSize(int replayBatchSize) {
+      this.replayBatchSize = replayBatchSize;
+    }
+  }
+}
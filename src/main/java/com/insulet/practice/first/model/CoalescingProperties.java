@@ -0,0 +1,30 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.coalescing")
+public class CoalescingProperties {
+
+  private boolean enabled = true;
+  private Duration window = Duration.ZERO; // how long a finished lookup is still shared, 0 = only while in flight
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Duration getWindow() {
+    return window;
+  }
+
+  public void setWindow(Duration window) {
+    this.window = window;
+  }
+}
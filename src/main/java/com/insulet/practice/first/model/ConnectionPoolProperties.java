@@ -0,0 +1,94 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "application.datasource")
+public class ConnectionPoolProperties {
+
+  private int maximumPoolSize = 0; // 0 = execution.max-concurrent + headroom, or spring.datasource.hikari when that is 0 too
+  private int headroom = 2; // connections beyond the request limit for the audit writer, exports and maintenance
+  private Duration connectionTimeout = Duration.ofMillis(500); // fail fast instead of parking request threads on the pool
+  private Duration leakDetectionThreshold = Duration.ofMinutes(11); // 0 = off; above request.export.max-duration
+  private Duration queryTimeout = Duration.ofSeconds(5); // JdbcTemplate and sql: statements, not streaming exports
+  private int prepareThreshold = 1; // pgjdbc executions before switching to a server-side prepared statement
+  private int preparedStatementCacheQueries = 256;
+  private DataSize preparedStatementCacheSize = DataSize.ofMegabytes(5); // per connection, whole MiB
+  private double saturationThreshold = 0.9; // active / maximum at which the health indicator reports SATURATED
+
+  public int getMaximumPoolSize() {
+    return maximumPoolSize;
+  }
+
+  public void setMaximumPoolSize(int maximumPoolSize) {
+    this.maximumPoolSize = maximumPoolSize;
+  }
+
+  public int getHeadroom() {
+    return headroom;
+  }
+
+  public void setHeadroom(int headroom) {
+    this.headroom = headroom;
+  }
+
+  public Duration getConnectionTimeout() {
+    return connectionTimeout;
+  }
+
+  public void setConnectionTimeout(Duration connectionTimeout) {
+    this.connectionTimeout = connectionTimeout;
+  }
+
+  public Duration getLeakDetectionThreshold() {
+    return leakDetectionThreshold;
+  }
+
+  public void setLeakDetectionThreshold(Duration leakDetectionThreshold) {
+    this.leakDetectionThreshold = leakDetectionThreshold;
+  }
+
+  public Duration getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  public void setQueryTimeout(Duration queryTimeout) {
+    this.queryTimeout = queryTimeout;
+  }
+
+  public int getPrepareThreshold() {
+    return prepareThreshold;
+  }
+
+  public void setPrepareThreshold(int prepareThreshold) {
+    this.prepareThreshold = prepareThreshold;
+  }
+
+  public int getPreparedStatementCacheQueries() {
+    return preparedStatementCacheQueries;
+  }
+
+  public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+    this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+  }
+
+  public DataSize getPreparedStatementCacheSize() {
+    return preparedStatementCacheSize;
+  }
+
+  public void setPreparedStatementCacheSize(DataSize preparedStatementCacheSize) {
+    this.preparedStatementCacheSize = preparedStatementCacheSize;
+  }
+
+  public double getSaturationThreshold() {
+    return saturationThreshold;
+  }
+
+  public void setSaturationThreshold(double saturationThreshold) {
+    this.saturationThreshold = saturationThreshold;
+  }
+}
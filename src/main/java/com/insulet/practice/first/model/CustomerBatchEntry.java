@@ -0,0 +1,11 @@
+package com.insulet.practice.first.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result for one customerId of a batch: its records, or the reason the ID was rejected.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CustomerBatchEntry(String customerId, List<SuccessResponse> records, ErrorResponse error) {}
@@ -0,0 +1,22 @@
+package com.insulet.practice.first.model;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Body of POST /customers/batchGet. The date range and paging apply to every customer; each ID is
+ * validated on its own and reported per entry.
+ */
+public record CustomerBatchRequest(
+    @NotEmpty(message = "customerIds cannot be null or empty")
+    @Size(max = CustomerBatchRequest.MAX_IDS, message = "customerIds cannot contain more than 200 IDs")
+    List<String> customerIds,
+    String startDate,
+    String endDate,
+    Integer page,
+    Integer limit) {
+
+  public static final int MAX_IDS = 200;
+}
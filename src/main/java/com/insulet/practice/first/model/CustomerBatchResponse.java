@@ -0,0 +1,5 @@
+package com.insulet.practice.first.model;
+
+import java.util.List;
+
+public record CustomerBatchResponse(List<CustomerBatchEntry> results) {}
@@ -0,0 +1,34 @@
+package com.insulet.practice.first.model;
+
+/**
+ * Canonical instances of recently seen customer IDs. Requests for the same customer then share one
+ * String, so the lookup cache, in-flight lookups and the audit queue hold a single copy per
+ * customer, and comparing their keys mostly ends at the identity check.
+ *
+ * <p>The table is direct-mapped and lossy: each slot keeps the last ID hashed to it, so its size is
+ * fixed however many customers there are. Slots are read and written without synchronization,
+ * which is safe for immutable Strings; a lost update only costs a duplicate instance.
+ */
+final class CustomerIds {
+
+  private static final int SLOTS = 4096; // power of two
+
+  private static final String[] TABLE = new String[SLOTS];
+
+  private CustomerIds() {
+  }
+
+  static String canonical(String customerId) {
+    if (customerId == null) {
+      return null;
+    }
+    int hash = customerId.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+    String cached = TABLE[slot];
+    if (customerId.equals(cached)) {
+      return cached;
+    }
+    TABLE[slot] = customerId;
+    return customerId;
+  }
+}
@@ -0,0 +1,8 @@
+package com.insulet.practice.first.model;
+
+import java.util.List;
+
+public record CustomerPage(List<SuccessResponse> records, String nextCursor) {
+
+  public static final CustomerPage EMPTY = new CustomerPage(List.of(), null);
+}
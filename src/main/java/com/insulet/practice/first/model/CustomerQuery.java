@@ -0,0 +1,28 @@
+package com.insulet.practice.first.model;
+
+import com.insulet.practice.first.utils.IsoTimestamps;
+
+/**
+ * Normalized form of a {@link CustomerRequest} as seen by the read path; two requests asking
+ * for the same rows produce equal queries.
+ */
+public record CustomerQuery(String customerId, Long startEpochMillis, Long endEpochMillis, long offset, int limit,
+    PageCursor after) {
+
+  public static CustomerQuery from(CustomerRequest request) {
+    int limit = request.getLimitOrZero();
+    int page = request.getPageOrZero();
+    PageCursor after = PageCursor.decode(request.getCursor());
+    return new CustomerQuery(
+        request.getCustomerId(),
+        toEpochMillis(request.getStartEpochMillis()),
+        toEpochMillis(request.getEndEpochMillis()),
+        after != null ? 0 : (long) page * limit,
+        limit,
+        after);
+  }
+
+  private static Long toEpochMillis(long parsed) {
+    return parsed == IsoTimestamps.INVALID ? null : parsed;
+  }
+}
@@ -3,40 +3,77 @@ package com.insulet.practice.first.model;
 import java.util.Objects;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.Message;
 
+import com.insulet.practice.first.utils.IsoTimestamp;
+import com.insulet.practice.first.utils.IsoTimestamps;
+import com.insulet.practice.first.utils.ValidCursorPaging;
 import com.insulet.practice.first.utils.ValidDateRange;
 
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
-
+import jakarta.validation.constraints.Size;
+
+/**
+ * One GET /customers/{customerId} request. Held in a compact form for the hot path: page and limit
+ * are primitive ints with presence flags instead of boxed Integers, both dates are also kept as
+ * epoch milliseconds and customerId is a {@link CustomerIds canonical} instance. The boxed getters
+ * remain for bean validation and callers that need to tell an absent value from 0.
+ */
 @ValidDateRange
+@ValidCursorPaging
 public class CustomerRequest {
 
+  private static final long NO_HEADER = Long.MIN_VALUE;
+
   @NotEmpty(message = "Customer ID cannot be null or empty")
   private final String customerId;
 
-  @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z$", message = "Invalid startDate format. Expected ISO 8601 format YYYY-MM-DDThh:mm:ss.mmmZ")
+  @IsoTimestamp(message = "Invalid startDate format. Expected ISO 8601 format YYYY-MM-DDThh:mm:ss.mmmZ")
   private final String startDate;
 
-  @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z$", message = "Invalid endDate format. Expected ISO 8601 format YYYY-MM-DDThh:mm:ss.mmmZ")
+  @IsoTimestamp(message = "Invalid endDate format. Expected ISO 8601 format YYYY-MM-DDThh:mm:ss.mmmZ")
   private final String endDate;
 
-  @Min(value = 0, message = "Page number cannot be negative")
-  private final Integer page;
+  // Constraints for page and limit are on the getters, the fields cannot express "absent"
+  private final int page;
+  private final int limit;
+  private final boolean hasPage;
+  private final boolean hasLimit;
 
-  @Min(value = 0, message = "Limit cannot be negative")
-  @Max(value = 500, message = "Limit cannot be greater than 500")
-  private final Integer limit;
+  @Size(max = 64, message = "Cursor cannot be longer than 64 characters")
+  @Pattern(regexp = "^[A-Za-z0-9_-]*$", message = "Invalid cursor. Use the value returned in X-Next-Cursor")
+  private final String cursor;
+
+  // Parsed once here so validation and the SQL steps never parse the date strings again
+  private final long startEpochMillis;
+  private final long endEpochMillis;
 
   public CustomerRequest(
       String customerId, String startDate, String endDate, Integer page, Integer limit) {
-    this.customerId = customerId;
+    this(customerId, startDate, endDate, page, limit, null);
+  }
+
+  public CustomerRequest(
+      String customerId, String startDate, String endDate, Integer page, Integer limit, String cursor) {
+    this(customerId, startDate, endDate, page != null, page != null ? page : 0, limit != null,
+        limit != null ? limit : 0, cursor);
+  }
+
+  private CustomerRequest(String customerId, String startDate, String endDate, boolean hasPage, int page,
+      boolean hasLimit, int limit, String cursor) {
+    this.customerId = CustomerIds.canonical(customerId);
     this.startDate = startDate;
     this.endDate = endDate;
+    this.hasPage = hasPage;
     this.page = page;
+    this.hasLimit = hasLimit;
     this.limit = limit;
+    this.cursor = cursor;
+    this.startEpochMillis = IsoTimestamps.parse(startDate);
+    this.endEpochMillis = IsoTimestamps.parse(endDate);
   }
 
   public String getCustomerId() {
@@ -51,25 +88,116 @@ public class CustomerRequest {
     return endDate;
   }
 
+  @Min(value = 0, message = "Page number cannot be negative")
   public Integer getPage() {
-    return page;
+    return hasPage ? page : null;
   }
 
+  @Min(value = 0, message = "Limit cannot be negative")
+  @Max(value = 500, message = "Limit cannot be greater than 500")
   public Integer getLimit() {
+    return hasLimit ? limit : null;
+  }
+
+  public boolean hasPage() {
+    return hasPage;
+  }
+
+  /**
+   * Page without boxing, 0 if absent.
+   */
+  public int getPageOrZero() {
+    return page;
+  }
+
+  public boolean hasLimit() {
+    return hasLimit;
+  }
+
+  /**
+   * Limit without boxing, 0 if absent.
+   */
+  public int getLimitOrZero() {
     return limit;
   }
 
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Epoch milliseconds of startDate, or {@link IsoTimestamps#INVALID} if it is absent or malformed.
+   */
+  public long getStartEpochMillis() {
+    return startEpochMillis;
+  }
+
+  /**
+   * Epoch milliseconds of endDate, or {@link IsoTimestamps#INVALID} if it is absent or malformed.
+   */
+  public long getEndEpochMillis() {
+    return endEpochMillis;
+  }
+
   public static CustomerRequest fromExchange(Exchange exchange, Integer defaultLimit) {
     Objects.requireNonNull(exchange, "Exchange object cannot be null");
 
-    Integer page = exchange.getIn().getHeader("page", Integer.class);
-    Integer limit = exchange.getIn().getHeader("limit", Integer.class);
+    // Each header is read and converted once, straight into the primitive fields
+    Message in = exchange.getIn();
+    long page = intHeader(in, "page");
+    long limit = intHeader(in, "limit");
+    boolean hasLimit = limit != NO_HEADER || defaultLimit != null;
 
     return new CustomerRequest(
-        exchange.getIn().getHeader("customerId", String.class),
-        exchange.getIn().getHeader("startDate", String.class),
-        exchange.getIn().getHeader("endDate", String.class),
-        page != null ? page : 0,        limit != null ? limit : defaultLimit);
+        stringHeader(in, "customerId"),
+        stringHeader(in, "startDate"),
+        stringHeader(in, "endDate"),
+        true,
+        page != NO_HEADER ? (int) page : 0,
+        hasLimit,
+        limit != NO_HEADER ? (int) limit : hasLimit ? defaultLimit : 0,
+        stringHeader(in, "cursor"));
+  }
+
+  private static String stringHeader(Message in, String name) {
+    Object value = in.getHeader(name);
+    if (value == null || value instanceof String) {
+      return (String) value;
+    }
+    return in.getHeader(name, String.class);
+  }
+
+  // Query parameters arrive as strings. Plain decimal values are parsed here, anything else goes
+  // through Camel's type converter so malformed values fail exactly as before
+  private static long intHeader(Message in, String name) {
+    Object value = in.getHeader(name);
+    if (value == null) {
+      return NO_HEADER;
+    }
+    if (value instanceof Integer number) {
+      return number;
+    }
+    if (value instanceof String text && isShortDecimal(text)) {
+      return Integer.parseInt(text);
+    }
+    Integer converted = in.getHeader(name, Integer.class);
+    return converted != null ? converted : NO_HEADER;
+  }
+
+  // At most 9 digits with an optional minus, always fits an int
+  private static boolean isShortDecimal(String text) {
+    int start = text.startsWith("-") ? 1 : 0;
+    int length = text.length() - start;
+    if (length < 1 || length > 9) {
+      return false;
+    }
+    for (int i = start; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -85,9 +213,12 @@ public class CustomerRequest {
         + endDate
         + '\''
         + ", page="
-        + page
+        + (hasPage ? Integer.toString(page) : "null")
         + ", limit="
-        + limit
+        + (hasLimit ? Integer.toString(limit) : "null")
+        + ", cursor='"
+        + cursor
+        + '\''
         + '}';
   }
 
@@ -98,15 +229,26 @@ public class CustomerRequest {
     if (o == null || getClass() != o.getClass())
       return false;
     CustomerRequest that = (CustomerRequest) o;
-    return Objects.equals(customerId, that.customerId)
+    return hasPage == that.hasPage
+        && page == that.page
+        && hasLimit == that.hasLimit
+        && limit == that.limit
+        && Objects.equals(customerId, that.customerId)
         && Objects.equals(startDate, that.startDate)
         && Objects.equals(endDate, that.endDate)
-        && Objects.equals(page, that.page)
-        && Objects.equals(limit, that.limit);
+        && Objects.equals(cursor, that.cursor);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(customerId, startDate, endDate, page, limit);
+    // Same value as Objects.hash over the boxed fields, without the varargs array and boxing
+    int result = 1;
+    result = 31 * result + Objects.hashCode(customerId);
+    result = 31 * result + Objects.hashCode(startDate);
+    result = 31 * result + Objects.hashCode(endDate);
+    result = 31 * result + (hasPage ? page : 0);
+    result = 31 * result + (hasLimit ? limit : 0);
+    result = 31 * result + Objects.hashCode(cursor);
+    return result;
   }
 }
@@ -0,0 +1,45 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.execution")
+public class ExecutionProperties {
+
+  public enum Mode {
+    PLATFORM,
+    VIRTUAL,
+    REACTIVE
+  }
+
+  private Mode mode = Mode.PLATFORM;
+  private int maxConcurrent = 0; // 0 = JDBC pool minus datasource.headroom in virtual mode, R2DBC pool in reactive mode, unlimited in platform mode
+  private Duration acquireTimeout = Duration.ofMillis(100);
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public Duration getAcquireTimeout() {
+    return acquireTimeout;
+  }
+
+  public void setAcquireTimeout(Duration acquireTimeout) {
+    this.acquireTimeout = acquireTimeout;
+  }
+}
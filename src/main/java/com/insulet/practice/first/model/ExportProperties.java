@@ -0,0 +1,39 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.export")
+public class ExportProperties {
+
+  private int fetchSize = 1000; // rows pulled per JDBC round trip while streaming
+  private Duration maxDuration = Duration.ofMinutes(10); // keep application.datasource.leak-detection-threshold above it
+  private int maxConcurrent = 1; // each holds a connection from application.datasource.headroom, raise the two together
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public Duration getMaxDuration() {
+    return maxDuration;
+  }
+
+  public void setMaxDuration(Duration maxDuration) {
+    this.maxDuration = maxDuration;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+}
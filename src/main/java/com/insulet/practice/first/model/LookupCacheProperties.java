@@ -0,0 +1,39 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.cache")
+public class LookupCacheProperties {
+
+  private boolean enabled = true;
+  private long maximumSize = 10_000;
+  private Duration ttl = Duration.ofSeconds(30);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+}
@@ -0,0 +1,52 @@
+package com.insulet.practice.first.model;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Sort key of the last record on a page. Clients only ever see the opaque base64url form, which
+ * lets the next page start with an index seek instead of skipping OFFSET rows.
+ */
+public record PageCursor(long recordedAtMicros, long id) {
+
+  private static final int ENCODED_BYTES = 2 * Long.BYTES;
+
+  // Postgres keeps microseconds, a millisecond key would skip rows that tie within the same millisecond.
+  // recorded_at holds UTC wall-clock time, read without the JVM zone so every node encodes the same cursor
+  public static PageCursor of(LocalDateTime recordedAt, long id) {
+    long micros = recordedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + recordedAt.getNano() / 1000;
+    return new PageCursor(micros, id);
+  }
+
+  public LocalDateTime recordedAt() {
+    return LocalDateTime.ofEpochSecond(Math.floorDiv(recordedAtMicros, 1_000_000L),
+        (int) Math.floorMod(recordedAtMicros, 1_000_000L) * 1000, ZoneOffset.UTC);
+  }
+
+  public String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).putLong(recordedAtMicros).putLong(id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Returns the decoded cursor, or {@code null} if the value was not produced by {@link #encode()}.
+   */
+  public static PageCursor decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return null;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (bytes.length != ENCODED_BYTES) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new PageCursor(buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,71 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * R2DBC connection used by the customer route when application.request.execution.mode is
+ * reactive. Deliberately not spring.r2dbc: a ConnectionFactory bean would switch off the JDBC
+ * DataSource the audit, batch and export paths still need.
+ */
+@Component
+@ConfigurationProperties(prefix = "application.datasource.r2dbc")
+public class R2dbcProperties {
+
+  private String url = "r2dbc:postgresql://localhost:5432/mydb";
+  private String username;
+  private String password;
+  private int maxSize = 10; // connections, and so the most lookups running against the database at once
+  private Duration maxAcquireTime = Duration.ofMillis(500); // waiting longer for a connection fails the request
+  private Duration maxIdleTime = Duration.ofMinutes(30);
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public void setPassword(String password) {
+    this.password = password;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public Duration getMaxAcquireTime() {
+    return maxAcquireTime;
+  }
+
+  public void setMaxAcquireTime(Duration maxAcquireTime) {
+    this.maxAcquireTime = maxAcquireTime;
+  }
+
+  public Duration getMaxIdleTime() {
+    return maxIdleTime;
+  }
+
+  public void setMaxIdleTime(Duration maxIdleTime) {
+    this.maxIdleTime = maxIdleTime;
+  }
+}
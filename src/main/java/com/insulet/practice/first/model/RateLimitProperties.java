@@ -0,0 +1,84 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = false; // off unless configured, partners above the rates would start getting 429
+  private double customerRate = 50; // requests per second for one customerId
+  private int customerBurst = 100;
+  private double clientRate = 200; // requests per second for one client
+  private int clientBurst = 400;
+  private String clientHeader = "X-Client-Id"; // requests without it are only limited per customer
+  private long maximumKeys = 100_000; // per scope, least recently used keys are dropped first
+  private Duration idleTimeout = Duration.ofMinutes(5);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getCustomerRate() {
+    return customerRate;
+  }
+
+  public void setCustomerRate(double customerRate) {
+    this.customerRate = customerRate;
+  }
+
+  public int getCustomerBurst() {
+    return customerBurst;
+  }
+
+  public void setCustomerBurst(int customerBurst) {
+    this.customerBurst = customerBurst;
+  }
+
+  public double getClientRate() {
+    return clientRate;
+  }
+
+  public void setClientRate(double clientRate) {
+    this.clientRate = clientRate;
+  }
+
+  public int getClientBurst() {
+    return clientBurst;
+  }
+
+  public void setClientBurst(int clientBurst) {
+    this.clientBurst = clientBurst;
+  }
+
+  public String getClientHeader() {
+    return clientHeader;
+  }
+
+  public void setClientHeader(String clientHeader) {
+    this.clientHeader = clientHeader;
+  }
+
+  public long getMaximumKeys() {
+    return maximumKeys;
+  }
+
+  public void setMaximumKeys(long maximumKeys) {
+    this.maximumKeys = maximumKeys;
+  }
+
+  public Duration getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public void setIdleTimeout(Duration idleTimeout) {
+    this.idleTimeout = idleTimeout;
+  }
+}
@@ -0,0 +1,104 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.datasource.replicas")
+public class ReplicaProperties {
+
+  // Seconds of replay lag; 0 when the replica has applied everything it received or is not in recovery
+  public static final String POSTGRES_LAG_QUERY = "SELECT CASE "
+      + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+      + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+  private boolean enabled = false;
+  private List<Target> targets = new ArrayList<>();
+  private Duration maxLag = Duration.ofSeconds(5); // replicas further behind serve no reads until they catch up
+  private Duration checkInterval = Duration.ofSeconds(5);
+  private String lagQuery = POSTGRES_LAG_QUERY; // must return the lag in seconds as a single number
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<Target> getTargets() {
+    return targets;
+  }
+
+  public void setTargets(List<Target> targets) {
+    this.targets = targets;
+  }
+
+  public Duration getMaxLag() {
+    return maxLag;
+  }
+
+  public void setMaxLag(Duration maxLag) {
+    this.maxLag = maxLag;
+  }
+
+  public Duration getCheckInterval() {
+    return checkInterval;
+  }
+
+  public void setCheckInterval(Duration checkInterval) {
+    this.checkInterval = checkInterval;
+  }
+
+  public String getLagQuery() {
+    return lagQuery;
+  }
+
+  public void setLagQuery(String lagQuery) {
+    this.lagQuery = lagQuery;
+  }
+
+  public static class Target {
+
+    private String name;
+    private String url;
+    private String username;
+    private String password;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+  }
+}
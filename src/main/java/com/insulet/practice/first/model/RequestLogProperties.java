@@ -0,0 +1,30 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.log")
+public class RequestLogProperties {
+
+  private double sampleRate = 0.01; // fraction of requests written to the customer.requests log
+  private Duration stackTraceInterval = Duration.ofMinutes(1); // per exception type
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public Duration getStackTraceInterval() {
+    return stackTraceInterval;
+  }
+
+  public void setStackTraceInterval(Duration stackTraceInterval) {
+    this.stackTraceInterval = stackTraceInterval;
+  }
+}
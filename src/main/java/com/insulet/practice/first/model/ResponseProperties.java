@@ -0,0 +1,78 @@
+package com.insulet.practice.first.model;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "application.response")
+public class ResponseProperties {
+
+  private int bufferPoolSize = 64; // serialization buffers kept for reuse, roughly the number of concurrent responses
+  private DataSize maxPooledBufferSize = DataSize.ofKilobytes(256); // larger buffers are left to the GC
+  private Compression compression = new Compression();
+
+  public int getBufferPoolSize() {
+    return bufferPoolSize;
+  }
+
+  public void setBufferPoolSize(int bufferPoolSize) {
+    this.bufferPoolSize = bufferPoolSize;
+  }
+
+  public DataSize getMaxPooledBufferSize() {
+    return maxPooledBufferSize;
+  }
+
+  public void setMaxPooledBufferSize(DataSize maxPooledBufferSize) {
+    this.maxPooledBufferSize = maxPooledBufferSize;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public void setCompression(Compression compression) {
+    this.compression = compression;
+  }
+
+  public static class Compression {
+
+    private boolean enabled = false; // often done by the load balancer already
+    private DataSize minSize = DataSize.ofKilobytes(2); // smaller bodies are sent as-is
+    private boolean zstd = true; // preferred over gzip when the client accepts it and zstd-jni is on the classpath
+    private int zstdLevel = 3;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public DataSize getMinSize() {
+      return minSize;
+    }
+
+    public void setMinSize(DataSize minSize) {
+      this.minSize = minSize;
+    }
+
+    public boolean isZstd() {
+      return zstd;
+    }
+
+    public void setZstd(boolean zstd) {
+      this.zstd = zstd;
+    }
+
+    public int getZstdLevel() {
+      return zstdLevel;
+    }
+
+    public void setZstdLevel(int zstdLevel) {
+      this.zstdLevel = zstdLevel;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.retention")
+public class RetentionProperties {
+
+  public enum Mode {
+    DROP,
+    DETACH
+  }
+
+  private boolean enabled = false; // expiring partitions removes audit history, operators opt in; partitions are created regardless
+  private Duration retainFor = Duration.ofDays(90); // whole days, partitions are daily
+  private int partitionsAhead = 3; // days created in advance so inserts never land in the default partition
+  private Mode mode = Mode.DETACH; // leaves expired partitions as plain tables for archiving; DROP deletes them
+  private Duration checkInterval = Duration.ofHours(1);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Duration getRetainFor() {
+    return retainFor;
+  }
+
+  public void setRetainFor(Duration retainFor) {
+    this.retainFor = retainFor;
+  }
+
+  public int getPartitionsAhead() {
+    return partitionsAhead;
+  }
+
+  public void setPartitionsAhead(int partitionsAhead) {
+    this.partitionsAhead = partitionsAhead;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  public Duration getCheckInterval() {
+    return checkInterval;
+  }
+
+  public void setCheckInterval(Duration checkInterval) {
+    this.checkInterval = checkInterval;
+  }
+}
@@ -0,0 +1,77 @@
+package com.insulet.practice.first.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.sharding")
+public class ShardingProperties {
+
+  private boolean enabled = false;
+  private String self; // base URL peers reach this node at, e.g. http://10.0.1.12:8080; must match its peers entry
+  private List<String> peers = new ArrayList<>(); // base URLs of all nodes, this one included
+  private String peersFile; // one base URL per line, '#' starts a comment; re-read every refresh-interval
+  private Duration refreshInterval = Duration.ofSeconds(10);
+  private int virtualNodes = 128; // ring points per node
+  private Duration forwardTimeout = Duration.ofMillis(500); // past this the request is served locally
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getSelf() {
+    return self;
+  }
+
+  public void setSelf(String self) {
+    this.self = self;
+  }
+
+  public List<String> getPeers() {
+    return peers;
+  }
+
+  public void setPeers(List<String> peers) {
+    this.peers = peers;
+  }
+
+  public String getPeersFile() {
+    return peersFile;
+  }
+
+  public void setPeersFile(String peersFile) {
+    this.peersFile = peersFile;
+  }
+
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+
+  public int getVirtualNodes() {
+    return virtualNodes;
+  }
+
+  public void setVirtualNodes(int virtualNodes) {
+    this.virtualNodes = virtualNodes;
+  }
+
+  public Duration getForwardTimeout() {
+    return forwardTimeout;
+  }
+
+  public void setForwardTimeout(Duration forwardTimeout) {
+    this.forwardTimeout = forwardTimeout;
+  }
+}
@@ -0,0 +1,24 @@
+package com.insulet.practice.first.model;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "application.request.validation")
+public class ValidationProperties {
+
+  public enum Mode {
+    BEAN,
+    COMPILED
+  }
+
+  private Mode mode = Mode.BEAN; // compiled skips bean-validator once RequestPrecheck has passed a request
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+}
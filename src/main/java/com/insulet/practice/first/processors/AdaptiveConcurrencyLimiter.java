@@ -0,0 +1,142 @@
+package com.insulet.practice.first.processors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.AdaptiveLimitProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrency limit that follows the route's observed latency. A short and a long moving average
+ * of successful request latency are compared after each sample: while recent requests are no more
+ * than {@code tolerance} times slower than usual the limit grows, once they are slower it shrinks
+ * in proportion. Requests over the limit are shed with a 503 instead of queueing on the
+ * connection pool. {@link ConcurrencyLimiter} still applies as the fixed upper bound.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements Processor {
+
+  private static final double SHORT_WINDOW = 10;
+  private static final double LONG_WINDOW = 600;
+
+  private final boolean enabled;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+
+  // Guarded by update; samples that find it locked are dropped rather than waited for
+  private final ReentrantLock update = new ReentrantLock();
+  private double estimatedLimit;
+  private double shortRtt;
+  private double longRtt;
+
+  private final Counter admitted;
+  private final Counter shed;
+
+  public AdaptiveConcurrencyLimiter(AdaptiveLimitProperties properties, MeterRegistry meterRegistry) {
+    this.enabled = properties.isEnabled();
+    this.minLimit = properties.getMinLimit();
+    this.maxLimit = properties.getMaxLimit();
+    this.tolerance = properties.getTolerance();
+    this.smoothing = properties.getSmoothing();
+    this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    this.limit = (int) estimatedLimit;
+
+    Gauge.builder("customer.requests.adaptive.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current latency-derived concurrency limit of the customer route")
+        .register(meterRegistry);
+    this.admitted = Counter.builder("customer.requests.adaptive.admitted")
+        .description("Requests admitted under the adaptive concurrency limit")
+        .register(meterRegistry);
+    this.shed = Counter.builder("customer.requests.adaptive.shed")
+        .description("Requests shed because the adaptive concurrency limit was reached")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    if (!enabled) {
+      return;
+    }
+    int current = inFlight.incrementAndGet();
+    if (current > limit) {
+      inFlight.decrementAndGet();
+      shed.increment();
+      throw new ConcurrencyLimitExceededException("Service is shedding load, retry later");
+    }
+    admitted.increment();
+    exchange.getExchangeExtension().addOnCompletion(new Sample(System.nanoTime(), current));
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+
+  void sample(long rttNanos, int inFlightAtStart) {
+    if (!update.tryLock()) {
+      return;
+    }
+    try {
+      if (longRtt == 0) {
+        shortRtt = rttNanos;
+        longRtt = rttNanos;
+        return;
+      }
+      shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+      longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+      // After a sustained latency drop let the baseline catch up instead of growing without bound
+      if (longRtt > 2 * shortRtt) {
+        longRtt *= 0.95;
+      }
+      // With most slots idle the latency says nothing about where the limit is
+      if (inFlightAtStart < estimatedLimit / 2) {
+        return;
+      }
+      double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+      double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+      estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+          estimatedLimit * (1 - smoothing) + target * smoothing));
+      limit = (int) estimatedLimit;
+    } finally {
+      update.unlock();
+    }
+  }
+
+  private final class Sample extends SynchronizationAdapter {
+
+    private final long start;
+    private final int inFlightAtStart;
+
+    private Sample(long start, int inFlightAtStart) {
+      this.start = start;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    @Override
+    public void onDone(Exchange exchange) {
+      inFlight.decrementAndGet();
+      // Only successful requests say how long real work takes, fast rejections would inflate the limit
+      Integer status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+      if (exchange.getException() == null && (status == null || status < 400)) {
+        sample(System.nanoTime() - start, inFlightAtStart);
+      }
+    }
+  }
+}
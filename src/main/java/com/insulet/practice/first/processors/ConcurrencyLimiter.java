@@ -0,0 +1,113 @@
+package com.insulet.practice.first.processors;
+
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.insulet.practice.first.model.R2dbcProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps the number of requests inside the customer routes. With virtual threads the web server no
+ * longer bounds concurrency, so without this every request would queue on the JDBC pool instead.
+ * In reactive mode no thread is held while a lookup waits on R2DBC, so the limit is what pushes
+ * back on clients once every R2DBC connection is busy.
+ */
+@Component
+public class ConcurrencyLimiter implements Processor {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final long acquireTimeoutNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final Counter rejected;
+
+  private final SynchronizationAdapter release = new SynchronizationAdapter() {
+    @Override
+    public void onDone(Exchange exchange) {
+      inFlight.decrementAndGet();
+      if (permits != null) {
+        permits.release();
+      }
+    }
+  };
+
+  public ConcurrencyLimiter(ExecutionProperties properties, DataSource dataSource, ConnectionPoolProperties poolProperties,
+      R2dbcProperties r2dbcProperties, MeterRegistry meterRegistry) {
+    this.maxConcurrent = resolveMaxConcurrent(properties, dataSource, poolProperties, r2dbcProperties);
+    this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+    this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+    logger.info("Customer routes running on {} threads, max concurrent requests: {}",
+        properties.getMode().name().toLowerCase(), maxConcurrent > 0 ? maxConcurrent : "unlimited");
+
+    Gauge.builder("customer.requests.inflight", inFlight, AtomicInteger::get)
+        .description("Requests currently inside the customer routes")
+        .register(meterRegistry);
+    Gauge.builder("customer.requests.inflight.peak", peakInFlight, AtomicInteger::get)
+        .description("Highest number of concurrent requests seen since startup")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("customer.requests.concurrency.rejected")
+        .description("Requests rejected because the concurrency limit was reached")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    if (permits != null && !permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+      rejected.increment();
+      throw new ConcurrencyLimitExceededException("Too many concurrent requests, retry later");
+    }
+    peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    exchange.getExchangeExtension().addOnCompletion(release);
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  private static int resolveMaxConcurrent(ExecutionProperties properties, DataSource dataSource,
+      ConnectionPoolProperties poolProperties, R2dbcProperties r2dbcProperties) {
+    if (properties.getMaxConcurrent() > 0) {
+      return properties.getMaxConcurrent();
+    }
+    if (properties.getMode() == ExecutionProperties.Mode.REACTIVE) {
+      return r2dbcProperties.getMaxSize();
+    }
+    if (properties.getMode() != ExecutionProperties.Mode.VIRTUAL) {
+      return 0;
+    }
+    // Leave the headroom to the audit writer, spool replay, partition job and exports
+    return Math.max(1, jdbcPoolSize(dataSource) - Math.max(0, poolProperties.getHeadroom()));
+  }
+
+  private static int jdbcPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      logger.warn("Could not read connection pool size: {}", e.getMessage());
+    }
+    return 10; // Hikari's default pool size
+  }
+}
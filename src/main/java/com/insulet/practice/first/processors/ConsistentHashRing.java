@@ -0,0 +1,102 @@
+package com.insulet.practice.first.processors;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistent-hash ring mapping customer IDs to nodes. Each node is placed at virtualNodes points,
+ * so ownership is spread evenly and adding or removing a node only moves the keys between it and
+ * its neighbours. Node order does not matter: every node builds the same ring from the same set.
+ *
+ * <p>Immutable; membership changes build a new ring.
+ */
+final class ConsistentHashRing {
+
+  private static final double RING_SIZE = 0x1p64;
+
+  private final List<String> nodes;
+  private final long[] points;
+  private final String[] owners;
+
+  ConsistentHashRing(List<String> nodes, int virtualNodes) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("A hash ring needs at least one node");
+    }
+    this.nodes = nodes.stream().distinct().sorted().toList();
+    long[][] placed = new long[this.nodes.size() * virtualNodes][];
+    int i = 0;
+    for (int node = 0; node < this.nodes.size(); node++) {
+      for (int replica = 0; replica < virtualNodes; replica++) {
+        placed[i++] = new long[] {hash(this.nodes.get(node) + "#" + replica), node};
+      }
+    }
+    // Ties between points are broken by node order, so every node resolves them the same way
+    Arrays.sort(placed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+    this.points = new long[placed.length];
+    this.owners = new String[placed.length];
+    for (i = 0; i < placed.length; i++) {
+      points[i] = placed[i][0];
+      owners[i] = this.nodes.get((int) placed[i][1]);
+    }
+  }
+
+  List<String> nodes() {
+    return nodes;
+  }
+
+  /**
+   * The node owning key: the first point at or after its hash, wrapping around.
+   */
+  String owner(String key) {
+    int index = Arrays.binarySearch(points, hash(key));
+    if (index < 0) {
+      index = -index - 1;
+    } else {
+      // Equal points sort together, the first of them owns the key
+      while (index > 0 && points[index - 1] == points[index]) {
+        index--;
+      }
+    }
+    return owners[index == points.length ? 0 : index];
+  }
+
+  /**
+   * Share of the hash space owned by each node, between 0 and 1.
+   */
+  Map<String, Double> ownership() {
+    Map<String, Double> shares = new LinkedHashMap<>();
+    for (String node : nodes) {
+      shares.put(node, 0.0);
+    }
+    for (int i = 0; i < points.length; i++) {
+      // Arc from the previous point, wrapping around for the first one
+      long arc = points[i] - points[i == 0 ? points.length - 1 : i - 1];
+      double length = points.length == 1 ? RING_SIZE : unsigned(arc);
+      shares.merge(owners[i], length / RING_SIZE, Double::sum);
+    }
+    return shares;
+  }
+
+  private static double unsigned(long value) {
+    return value >= 0 ? value : value + RING_SIZE;
+  }
+
+  // FNV-1a over the UTF-8 bytes, then the MurmurHash3 finalizer so similar IDs spread across the
+  // ring. Must never change: every node has to place keys and nodes identically
+  static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
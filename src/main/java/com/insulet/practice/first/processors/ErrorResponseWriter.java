@@ -0,0 +1,90 @@
+package com.insulet.practice.first.processors;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Renders {@link com.insulet.practice.first.model.ErrorResponse} JSON from cached bytes. Everything
+ * up to the timestamp is serialized once per distinct message, error and code, so an error body
+ * costs one array copy plus the timestamp digits.
+ */
+@Component
+public class ErrorResponseWriter {
+
+  // Server error messages can embed request data, keep the cache from growing with them
+  static final int MAX_CACHED = 256;
+
+  private record Key(String message, String error, int code) {
+  }
+
+  private final ConcurrentMap<Key, byte[]> prefixes = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the JSON body {"message":..,"error":..,"code":"<code>","timestamp":<timestamp>}, the
+   * same shape Jackson writes for the record. The timestamp must not be negative.
+   */
+  public byte[] write(String message, String error, int code, long timestamp) {
+    Key key = new Key(message, error, code);
+    byte[] prefix = prefixes.get(key);
+    if (prefix == null) {
+      prefix = prefix(message, error, code);
+      if (prefixes.size() < MAX_CACHED) {
+        prefixes.putIfAbsent(key, prefix);
+      }
+    }
+    return withTimestamp(prefix, timestamp);
+  }
+
+  int cached() {
+    return prefixes.size();
+  }
+
+  private static byte[] prefix(String message, String error, int code) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(64 + (message != null ? message.length() : 0));
+    out.writeBytes(ascii("{\"message\":"));
+    writeString(out, message);
+    out.writeBytes(ascii(",\"error\":"));
+    writeString(out, error);
+    out.writeBytes(ascii(",\"code\":"));
+    writeString(out, String.valueOf(code));
+    out.writeBytes(ascii(",\"timestamp\":"));
+    return out.toByteArray();
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    if (value == null) {
+      out.writeBytes(ascii("null"));
+      return;
+    }
+    out.write('"');
+    out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+    out.write('"');
+  }
+
+  private static byte[] withTimestamp(byte[] prefix, long timestamp) {
+    int digits = 1;
+    for (long v = timestamp; v >= 10; v /= 10) {
+      digits++;
+    }
+    byte[] body = Arrays.copyOf(prefix, prefix.length + digits + 1);
+    int end = prefix.length + digits;
+    body[end] = '}';
+    long v = timestamp;
+    for (int i = end - 1; i >= prefix.length; i--) {
+      body[i] = (byte) ('0' + v % 10);
+      v /= 10;
+    }
+    return body;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,59 @@
+package com.insulet.practice.first.processors;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.ExportProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps the number of running exports separately from {@link ConcurrencyLimiter}. An export holds
+ * its permit and a connection for as long as the client reads, up to export.max-duration, so
+ * sharing the request limit would let a few exports turn every lookup away.
+ */
+@Component
+public class ExportConcurrencyLimiter implements Processor {
+
+  private final Semaphore permits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter rejected;
+
+  private final SynchronizationAdapter release = new SynchronizationAdapter() {
+    @Override
+    public void onDone(Exchange exchange) {
+      inFlight.decrementAndGet();
+      permits.release();
+    }
+  };
+
+  public ExportConcurrencyLimiter(ExportProperties properties, MeterRegistry meterRegistry) {
+    this.permits = new Semaphore(Math.max(1, properties.getMaxConcurrent()));
+
+    Gauge.builder("customer.exports.inflight", inFlight, AtomicInteger::get)
+        .description("Exports currently streaming")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("customer.exports.concurrency.rejected")
+        .description("Exports rejected because export.max-concurrent were already running")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) {
+    // No waiting, a permit only frees up when a whole export has finished
+    if (!permits.tryAcquire()) {
+      rejected.increment();
+      throw new ConcurrencyLimitExceededException("Too many concurrent exports, retry later");
+    }
+    inFlight.incrementAndGet();
+    exchange.getExchangeExtension().addOnCompletion(release);
+  }
+}
@@ -0,0 +1,251 @@
+package com.insulet.practice.first.processors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.apache.camel.ValidationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.luben.zstd.Zstd;
+import com.insulet.practice.first.model.CustomerBatchRequest;
+import com.insulet.practice.first.model.CustomerBatchResponse;
+import com.insulet.practice.first.model.ResponseProperties;
+import com.insulet.practice.first.model.SuccessResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * JSON bodies for the customer routes, which run with REST binding off. Readers and writers are
+ * resolved once per type, serialization goes into a pooled buffer and the body is a single
+ * exact-size byte[] copy of it, so a page never passes through a String or a growing array.
+ *
+ * <p>With compression enabled the encoding is chosen per request from Accept-Encoding. zstd is
+ * compressed here when zstd-jni is on the classpath. For gzip only the Content-Encoding header is
+ * set: Camel's HTTP binding gzips bodies carrying it, compressing here as well would do it twice.
+ */
+@Component
+public class JsonResponseWriter {
+
+  static final String ACCEPT_ENCODING = "Accept-Encoding";
+  static final String CONTENT_ENCODING = "Content-Encoding";
+  static final String GZIP = "gzip";
+  static final String ZSTD = "zstd";
+
+  private static final boolean ZSTD_AVAILABLE =
+      ClassUtils.isPresent("com.github.luben.zstd.Zstd", JsonResponseWriter.class.getClassLoader());
+
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+  private final ObjectWriter pageWriter;
+  private final ObjectWriter batchWriter;
+  private final ObjectReader batchReader;
+
+  private final BlockingQueue<Buffer> buffers;
+  private final int maxPooledBufferSize;
+
+  private final boolean compression;
+  private final boolean zstd;
+  private final long minCompressedSize;
+  private final int zstdLevel;
+
+  private final DistributionSummary identitySize;
+  private final DistributionSummary gzipSize;
+  private final DistributionSummary zstdSize;
+
+  private final Processor writePage = exchange -> write(exchange, serialize(pageWriter, exchange.getMessage().getBody()));
+  private final Processor writeBatch = exchange -> write(exchange, serialize(batchWriter, exchange.getMessage().getBody()));
+  private final Processor readBatch = this::parseBatch;
+
+  public JsonResponseWriter(ObjectMapper objectMapper, ResponseProperties properties, MeterRegistry meterRegistry) {
+    this.pageWriter = objectMapper.writerFor(new TypeReference<List<SuccessResponse>>() {
+    });
+    this.batchWriter = objectMapper.writerFor(CustomerBatchResponse.class);
+    // Unknown fields are rejected, as the json binding did
+    this.batchReader = objectMapper.readerFor(CustomerBatchRequest.class)
+        .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    this.buffers = new ArrayBlockingQueue<>(Math.max(1, properties.getBufferPoolSize()));
+    this.maxPooledBufferSize = (int) Math.min(Integer.MAX_VALUE, properties.getMaxPooledBufferSize().toBytes());
+
+    ResponseProperties.Compression compressionProperties = properties.getCompression();
+    this.compression = compressionProperties.isEnabled();
+    this.zstd = compressionProperties.isZstd() && ZSTD_AVAILABLE;
+    this.minCompressedSize = compressionProperties.getMinSize().toBytes();
+    this.zstdLevel = compressionProperties.getZstdLevel();
+
+    this.identitySize = size("identity", meterRegistry);
+    this.gzipSize = size(GZIP, meterRegistry);
+    this.zstdSize = size(ZSTD, meterRegistry);
+  }
+
+  /**
+   * Writes the List of SuccessResponse body of a customer page.
+   */
+  public Processor writePage() {
+    return writePage;
+  }
+
+  /**
+   * Writes the CustomerBatchResponse body of a batch lookup.
+   */
+  public Processor writeBatch() {
+    return writeBatch;
+  }
+
+  /**
+   * Replaces the raw request body with the CustomerBatchRequest it contains. Malformed JSON is a
+   * validation error.
+   */
+  public Processor readBatch() {
+    return readBatch;
+  }
+
+  public byte[] serialize(List<SuccessResponse> page) throws IOException {
+    return serialize(pageWriter, page);
+  }
+
+  private byte[] serialize(ObjectWriter writer, Object body) throws IOException {
+    Buffer buffer = buffers.poll();
+    if (buffer == null) {
+      buffer = new Buffer();
+    }
+    try {
+      writer.writeValue(buffer, body);
+      return buffer.toByteArray();
+    } finally {
+      if (buffer.capacity() <= maxPooledBufferSize) {
+        buffer.reset();
+        buffers.offer(buffer);
+      }
+    }
+  }
+
+  private void write(Exchange exchange, byte[] json) {
+    Message message = exchange.getMessage();
+    message.setHeader(Exchange.CONTENT_TYPE, "application/json");
+    String encoding = compression && json.length >= minCompressedSize
+        ? negotiate(message.getHeader(ACCEPT_ENCODING, String.class), zstd)
+        : null;
+    // The request's Accept-Encoding would otherwise be copied onto the response
+    message.removeHeader(ACCEPT_ENCODING);
+    if (encoding != null) {
+      message.setHeader("Vary", ACCEPT_ENCODING);
+    }
+
+    if (ZSTD.equals(encoding)) {
+      byte[] compressed = ZstdCodec.compress(json, zstdLevel);
+      message.setHeader(CONTENT_ENCODING, ZSTD);
+      message.setBody(compressed);
+      zstdSize.record(compressed.length);
+    } else if (GZIP.equals(encoding)) {
+      message.setHeader(CONTENT_ENCODING, GZIP);
+      message.setBody(json);
+      gzipSize.record(json.length);
+    } else {
+      message.setBody(json);
+      identitySize.record(json.length);
+    }
+  }
+
+  private void parseBatch(Exchange exchange) throws Exception {
+    try (InputStream body = exchange.getIn().getBody(InputStream.class)) {
+      if (body == null) {
+        throw new ValidationException(exchange, "body: must be a JSON object");
+      }
+      CustomerBatchRequest request = batchReader.readValue(body);
+      exchange.getIn().setBody(request);
+    } catch (JsonProcessingException e) {
+      throw new ValidationException(exchange, "body: " + e.getOriginalMessage());
+    }
+  }
+
+  /**
+   * Picks zstd or gzip from an Accept-Encoding header, or null for identity. Codings with q=0 are
+   * refused, otherwise weights are ignored and zstd wins when allowed.
+   */
+  static String negotiate(String acceptEncoding, boolean zstdAllowed) {
+    if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+      return null;
+    }
+    boolean gzip = false;
+    for (String part : acceptEncoding.split(",")) {
+      int semicolon = part.indexOf(';');
+      String coding = (semicolon >= 0 ? part.substring(0, semicolon) : part).trim().toLowerCase(Locale.ROOT);
+      if (semicolon >= 0 && refused(part.substring(semicolon + 1))) {
+        continue;
+      }
+      if (zstdAllowed && ZSTD.equals(coding)) {
+        return ZSTD;
+      }
+      gzip |= GZIP.equals(coding) || "*".equals(coding);
+    }
+    return gzip ? GZIP : null;
+  }
+
+  private static boolean refused(String parameters) {
+    for (String parameter : parameters.split(";")) {
+      String trimmed = parameter.trim();
+      if (trimmed.startsWith("q=")) {
+        try {
+          return Double.parseDouble(trimmed.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  int pooledBuffers() {
+    return buffers.size();
+  }
+
+  private static DistributionSummary size(String encoding, MeterRegistry meterRegistry) {
+    return DistributionSummary.builder("customer.response.size")
+        .description("Serialized response body size by content encoding, gzip bodies before the HTTP binding compresses them")
+        .baseUnit("bytes")
+        .tag("encoding", encoding)
+        .register(meterRegistry);
+  }
+
+  private static final class Buffer extends ByteArrayOutputStream {
+
+    Buffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+  }
+
+  // Separate class so Zstd is only loaded when zstd-jni is present
+  private static final class ZstdCodec {
+
+    static byte[] compress(byte[] source, int level) {
+      byte[] target = new byte[(int) Zstd.compressBound(source.length)];
+      long length = Zstd.compressByteArray(target, 0, target.length, source, 0, source.length, level);
+      if (Zstd.isError(length)) {
+        throw new IllegalStateException("zstd compression failed: " + Zstd.getErrorName(length));
+      }
+      return Arrays.copyOf(target, (int) length);
+    }
+  }
+}
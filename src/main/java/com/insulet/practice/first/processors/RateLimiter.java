@@ -0,0 +1,158 @@
+package com.insulet.practice.first.processors;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.insulet.practice.first.exceptions.RateLimitExceededException;
+import com.insulet.practice.first.model.RateLimitProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token-bucket limits per customerId and per client, checked before a request takes a
+ * concurrency slot. Each key is a single AtomicLong updated with CAS, so different customers never
+ * contend and the check takes no lock. Rejected requests get a 429 with a Retry-After header.
+ */
+@Component
+public class RateLimiter implements Processor {
+
+  static final String RETRY_AFTER_HEADER = "Retry-After";
+  public static final String CUSTOMER_REJECTED_MESSAGE = "Too many requests for this customer, retry later";
+
+  private final boolean enabled;
+  private final String clientHeader;
+  private final Buckets customers;
+  private final Buckets clients;
+
+  private final Counter admitted;
+  private final Counter customerRejected;
+  private final Counter clientRejected;
+
+  public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+    this.enabled = properties.isEnabled();
+    this.clientHeader = properties.getClientHeader();
+    this.customers = new Buckets(properties.getCustomerRate(), properties.getCustomerBurst(), properties);
+    this.clients = new Buckets(properties.getClientRate(), properties.getClientBurst(), properties);
+
+    this.admitted = Counter.builder("customer.requests.ratelimit.admitted")
+        .description("Requests that passed the per-customer and per-client rate limits")
+        .register(meterRegistry);
+    this.customerRejected = Counter.builder("customer.requests.ratelimit.rejected")
+        .description("Requests rejected by a rate limit")
+        .tag("scope", "customer")
+        .register(meterRegistry);
+    this.clientRejected = Counter.builder("customer.requests.ratelimit.rejected")
+        .description("Requests rejected by a rate limit")
+        .tag("scope", "client")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    if (!enabled) {
+      return;
+    }
+    long now = System.nanoTime();
+
+    String client = clientHeader != null ? exchange.getIn().getHeader(clientHeader, String.class) : null;
+    boolean clientCharged = false;
+    if (client != null && !client.isEmpty()) {
+      long wait = clients.tryAcquire(client, now);
+      if (wait > 0) {
+        clientRejected.increment();
+        reject(exchange, wait, "Too many requests from this client, retry later");
+      }
+      clientCharged = true;
+    }
+
+    String customerId = exchange.getIn().getHeader("customerId", String.class);
+    if (customerId != null) {
+      long wait = customers.tryAcquire(customerId, now);
+      if (wait > 0) {
+        // The request is not served, so one throttled customer does not use up the client's budget
+        if (clientCharged) {
+          clients.refund(client);
+        }
+        customerRejected.increment();
+        reject(exchange, wait, CUSTOMER_REJECTED_MESSAGE);
+      }
+    }
+    admitted.increment();
+  }
+
+  /**
+   * Charges one request against the customer's bucket, for exchanges that serve several customers
+   * such as batchGet. Returns 0 if admitted, otherwise the nanoseconds until a token is available.
+   */
+  public long tryAcquireCustomer(String customerId) {
+    if (!enabled) {
+      return 0;
+    }
+    long wait = customers.tryAcquire(customerId, System.nanoTime());
+    if (wait > 0) {
+      customerRejected.increment();
+    }
+    return wait;
+  }
+
+  private static void reject(Exchange exchange, long waitNanos, String message) {
+    long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    exchange.getIn().setHeader(RETRY_AFTER_HEADER, seconds);
+    throw new RateLimitExceededException(message);
+  }
+
+  /**
+   * Buckets for one scope, stored as the GCRA theoretical arrival time: the instant at which the
+   * bucket would be full again. A request is admitted while that instant is at most one burst ahead.
+   */
+  static final class Buckets {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> arrivals;
+
+    Buckets(double ratePerSecond, int burst, RateLimitProperties properties) {
+      this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+      this.burstNanos = intervalNanos * Math.max(1, burst);
+      this.arrivals = Caffeine.newBuilder()
+          .maximumSize(properties.getMaximumKeys())
+          .expireAfterAccess(properties.getIdleTimeout())
+          .build();
+    }
+
+    /**
+     * Takes one token, returns 0 if admitted or the nanoseconds until a token is available.
+     */
+    long tryAcquire(String key, long now) {
+      AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+      while (true) {
+        long current = arrival.get();
+        long next = Math.max(current, now) + intervalNanos;
+        long excess = next - now - burstNanos;
+        if (excess > 0) {
+          return excess;
+        }
+        if (arrival.compareAndSet(current, next)) {
+          return 0;
+        }
+      }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} for a request that was not served after all.
+     */
+    void refund(String key) {
+      AtomicLong arrival = arrivals.getIfPresent(key);
+      if (arrival != null) {
+        arrival.addAndGet(-intervalNanos);
+      }
+    }
+  }
+}
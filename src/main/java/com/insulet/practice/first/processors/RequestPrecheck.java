@@ -0,0 +1,187 @@
+package com.insulet.practice.first.processors;
+
+import java.lang.annotation.Annotation;
+import java.util.StringJoiner;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.metrics.ValidationViolationCounter;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.utils.CursorPagingValidator;
+import com.insulet.practice.first.utils.CustomerRequestConstraints;
+import com.insulet.practice.first.utils.DateRangeValidator;
+import com.insulet.practice.first.utils.IsoTimestamp;
+import com.insulet.practice.first.utils.IsoTimestamps;
+import com.insulet.practice.first.utils.ValidCursorPaging;
+import com.insulet.practice.first.utils.ValidDateRange;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Checks the constraints declared on {@link CustomerRequest} with plain field comparisons before
+ * the route reaches bean-validator. A request that fails is rejected with a stackless
+ * {@link RequestRejectedException} whose message is cached per combination of violations, so bad
+ * clients never pay for Hibernate Validator, violation sets or message joining.
+ *
+ * <p>Bounds and messages come from the annotations through {@link CustomerRequestConstraints}. With
+ * application.request.validation.mode=compiled this is the only validation a request gets.
+ */
+@Component
+public class RequestPrecheck implements Processor {
+
+  /**
+   * One entry per constraint on CustomerRequest, with the property path and message bean-validator
+   * reports for it. Declaration order is the order violations are listed in the error message.
+   */
+  public enum Violation {
+    CUSTOMER_ID_EMPTY("customerId", NotEmpty.class, CustomerRequestConstraints.CUSTOMER_ID_EMPTY_MESSAGE),
+    START_DATE_FORMAT("startDate", IsoTimestamp.class, CustomerRequestConstraints.START_DATE_FORMAT_MESSAGE),
+    END_DATE_FORMAT("endDate", IsoTimestamp.class, CustomerRequestConstraints.END_DATE_FORMAT_MESSAGE),
+    DATE_RANGE("startDate", ValidDateRange.class, DateRangeValidator.MESSAGE),
+    PAGE_NEGATIVE("page", Min.class, CustomerRequestConstraints.PAGE_MIN_MESSAGE),
+    PAGE_WITH_CURSOR("page", ValidCursorPaging.class, CursorPagingValidator.PAGE_CONFLICT_MESSAGE),
+    LIMIT_NEGATIVE("limit", Min.class, CustomerRequestConstraints.LIMIT_MIN_MESSAGE),
+    LIMIT_TOO_LARGE("limit", Max.class, CustomerRequestConstraints.LIMIT_MAX_MESSAGE),
+    CURSOR_TOO_LONG("cursor", Size.class, CustomerRequestConstraints.CURSOR_SIZE_MESSAGE),
+    CURSOR_PATTERN("cursor", Pattern.class, CustomerRequestConstraints.CURSOR_PATTERN_MESSAGE),
+    CURSOR_UNDECODABLE("cursor", ValidCursorPaging.class, CursorPagingValidator.UNDECODABLE_MESSAGE);
+
+    private final String property;
+    private final Class<? extends Annotation> constraint;
+    private final String message;
+
+    Violation(String property, Class<? extends Annotation> constraint, String message) {
+      this.property = property;
+      this.constraint = constraint;
+      this.message = message;
+    }
+
+    public String property() {
+      return property;
+    }
+
+    public Class<? extends Annotation> constraint() {
+      return constraint;
+    }
+
+    public String message() {
+      return message;
+    }
+
+    int bit() {
+      return 1 << ordinal();
+    }
+  }
+
+  private static final Violation[] VIOLATIONS = Violation.values();
+
+  // One slot per violation combination. Strings are immutable, so a racing first fill is harmless
+  private static final String[] MESSAGES = new String[1 << VIOLATIONS.length];
+
+  private final Counter[] counters = new Counter[VIOLATIONS.length];
+
+  public RequestPrecheck(ValidationViolationCounter violationCounter) {
+    for (Violation violation : VIOLATIONS) {
+      counters[violation.ordinal()] = violationCounter.counter(violation.property(), violation.constraint());
+    }
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    int violations = check(exchange.getIn().getBody(CustomerRequest.class));
+    if (violations != 0) {
+      for (Violation violation : VIOLATIONS) {
+        if ((violations & violation.bit()) != 0) {
+          counters[violation.ordinal()].increment();
+        }
+      }
+      throw new RequestRejectedException(violations, describe(violations));
+    }
+  }
+
+  /**
+   * Returns the bit set of violated constraints, 0 if the request is valid.
+   */
+  public static int check(CustomerRequest request) {
+    int violations = 0;
+
+    String customerId = request.getCustomerId();
+    if (customerId == null || customerId.isEmpty()) {
+      violations |= Violation.CUSTOMER_ID_EMPTY.bit();
+    }
+
+    boolean startValid = request.getStartEpochMillis() != IsoTimestamps.INVALID;
+    boolean endValid = request.getEndEpochMillis() != IsoTimestamps.INVALID;
+    if (request.getStartDate() != null && !startValid) {
+      violations |= Violation.START_DATE_FORMAT.bit();
+    }
+    if (request.getEndDate() != null && !endValid) {
+      violations |= Violation.END_DATE_FORMAT.bit();
+    }
+    if (startValid && endValid && request.getStartEpochMillis() > request.getEndEpochMillis()) {
+      violations |= Violation.DATE_RANGE.bit();
+    }
+
+    boolean hasPage = request.hasPage();
+    int page = request.getPageOrZero();
+    if (hasPage && page < CustomerRequestConstraints.PAGE_MIN) {
+      violations |= Violation.PAGE_NEGATIVE.bit();
+    }
+
+    boolean hasLimit = request.hasLimit();
+    int limit = request.getLimitOrZero();
+    if (hasLimit && limit < CustomerRequestConstraints.LIMIT_MIN) {
+      violations |= Violation.LIMIT_NEGATIVE.bit();
+    }
+    if (hasLimit && limit > CustomerRequestConstraints.LIMIT_MAX) {
+      violations |= Violation.LIMIT_TOO_LARGE.bit();
+    }
+
+    String cursor = request.getCursor();
+    if (cursor != null) {
+      boolean wellFormed = CursorPagingValidator.isWellFormed(cursor);
+      if (cursor.length() > CustomerRequestConstraints.CURSOR_MAX_LENGTH) {
+        violations |= Violation.CURSOR_TOO_LONG.bit();
+      }
+      if (!CursorPagingValidator.isBase64Url(cursor)) {
+        violations |= Violation.CURSOR_PATTERN.bit();
+      }
+      // Mirrors CursorPagingValidator, which reports the page conflict before decoding
+      if (!cursor.isEmpty()) {
+        if (page > 0) {
+          violations |= Violation.PAGE_WITH_CURSOR.bit();
+        } else if (wellFormed && PageCursor.decode(cursor) == null) {
+          violations |= Violation.CURSOR_UNDECODABLE.bit();
+        }
+      }
+    }
+    return violations;
+  }
+
+  /**
+   * Returns the "property: message" list bean-validator failures are reported with.
+   */
+  public static String describe(int violations) {
+    String message = MESSAGES[violations];
+    if (message == null) {
+      StringJoiner joiner = new StringJoiner(", ");
+      for (Violation violation : VIOLATIONS) {
+        if ((violations & violation.bit()) != 0) {
+          joiner.add(violation.property() + ": " + violation.message());
+        }
+      }
+      message = joiner.toString();
+      MESSAGES[violations] = message;
+    }
+    return message;
+  }
+}
@@ -4,20 +4,24 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.springframework.stereotype.Component;
 
-import com.insulet.practice.first.model.ErrorResponse;
-
 @Component
 public class ServerExceptionProcessor implements Processor {
 
+  private final ErrorResponseWriter errorResponseWriter;
+
+  public ServerExceptionProcessor(ErrorResponseWriter errorResponseWriter) {
+    this.errorResponseWriter = errorResponseWriter;
+  }
+
   @Override
   public void process(Exchange exchange) throws Exception {
     Exception cause = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
-    ErrorResponse response = new ErrorResponse(
+    int status = exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 500, Integer.class);
+
+    exchange.getMessage().setBody(errorResponseWriter.write(
         cause.getMessage(),
         cause.getClass().getSimpleName(),
-        "500",
-        System.currentTimeMillis());
-
-    exchange.getMessage().setBody(response);
+        status,
+        System.currentTimeMillis()));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+package com.insulet.practice.first.processors;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.model.RateLimitProperties;
+import com.insulet.practice.first.model.ShardingProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends each GET /customers/{customerId} request to the node that owns the customer, so its lookup
+ * cache and request coalescing see all of that customer's traffic. Nodes come from
+ * application.sharding.peers or peers-file and own customer IDs by consistent hashing. A request
+ * owned elsewhere is forwarded with camel-http and the owner's response returned as is; if the
+ * owner cannot be reached within forward-timeout the request is served here instead.
+ *
+ * <p>Forwarded requests carry {@link #FORWARDED_BY_HEADER} and are always served by the node that
+ * receives them, so nodes that briefly disagree on membership never bounce a request around.
+ */
+@Component
+public class ShardRouter implements Processor, DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+  public static final String FORWARDED_BY_HEADER = "X-Shard-Forwarded-By";
+
+  private static final String CUSTOMERS_PATH = "/data-share/v1/customers/";
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
+  private static final List<String> RELAYED_HEADERS = List.of(
+      Exchange.CONTENT_TYPE, "Content-Encoding", "Vary", NEXT_CURSOR_HEADER, RateLimiter.RETRY_AFTER_HEADER);
+
+  private final ShardingProperties properties;
+  private final CamelContext camelContext;
+  private final String clientHeader;
+  private final String self;
+  private final long forwardTimeoutNanos;
+  private final String endpointOptions;
+  // Each forward blocks its own virtual thread, so slow peers never exhaust a shared pool
+  private final ExecutorService forwarders = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final Counter owned;
+  private final Counter forwarded;
+  private final Counter received;
+  private final Counter timeoutFallback;
+  private final Counter errorFallback;
+
+  private volatile ConsistentHashRing ring;
+  private volatile ProducerTemplate producerTemplate;
+
+  public ShardRouter(ShardingProperties properties, RateLimitProperties rateLimitProperties,
+      CamelContext camelContext, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.camelContext = camelContext;
+    this.clientHeader = rateLimitProperties.getClientHeader();
+    this.self = properties.getSelf() != null ? normalize(properties.getSelf()) : null;
+    this.forwardTimeoutNanos = properties.getForwardTimeout().toNanos();
+    // The HTTP call gives up on its own as well, so a peer that accepts connections but never answers
+    // cannot pile up connection leases behind abandoned forwards
+    long timeoutMillis = Math.max(1, properties.getForwardTimeout().toMillis());
+    this.endpointOptions = "?throwExceptionOnFailure=false"
+        + "&connectTimeout=" + timeoutMillis
+        + "&responseTimeout=" + timeoutMillis
+        + "&connectionRequestTimeout=" + timeoutMillis;
+    if (properties.isEnabled()) {
+      if (self == null) {
+        throw new IllegalStateException("application.sharding.self must be set when sharding is enabled");
+      }
+      refresh();
+    }
+
+    this.owned = requests(meterRegistry, "owned", "Requests for customers this node owns");
+    this.forwarded = requests(meterRegistry, "forwarded", "Requests answered by the owning peer");
+    this.received = requests(meterRegistry, "received", "Requests forwarded here by a peer");
+    this.timeoutFallback = Counter.builder("customer.shard.fallback")
+        .description("Requests served locally because the owning peer could not be used")
+        .tag("reason", "timeout")
+        .register(meterRegistry);
+    this.errorFallback = Counter.builder("customer.shard.fallback")
+        .description("Requests served locally because the owning peer could not be used")
+        .tag("reason", "error")
+        .register(meterRegistry);
+    Gauge.builder("customer.shard.ownership", this, ShardRouter::ownership)
+        .description("Share of the customer ID hash space this node owns, between 0 and 1")
+        .register(meterRegistry);
+    Gauge.builder("customer.shard.peers", this, router -> router.ring != null ? router.ring.nodes().size() : 0)
+        .description("Nodes in the hash ring, this one included")
+        .register(meterRegistry);
+    Gauge.builder("customer.shard.forwards.active", inFlight, AtomicInteger::get)
+        .description("Forwards to peers still running, including ones abandoned after forward-timeout")
+        .register(meterRegistry);
+  }
+
+  private static Counter requests(MeterRegistry meterRegistry, String route, String description) {
+    return Counter.builder("customer.shard.requests")
+        .description(description)
+        .tag("route", route)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    ConsistentHashRing current = ring;
+    if (current == null) {
+      return;
+    }
+    Message in = exchange.getIn();
+    if (in.getHeader(FORWARDED_BY_HEADER) != null) {
+      received.increment();
+      return;
+    }
+    String customerId = in.getHeader("customerId", String.class);
+    String owner = customerId != null ? current.owner(customerId) : self;
+    if (owner.equals(self)) {
+      owned.increment();
+      return;
+    }
+
+    Exchange response = forward(exchange, owner, customerId);
+    if (response == null) {
+      return; // served here
+    }
+    forwarded.increment();
+    Message reply = response.getMessage();
+    in.setHeader(Exchange.HTTP_RESPONSE_CODE, reply.getHeader(Exchange.HTTP_RESPONSE_CODE));
+    for (String header : RELAYED_HEADERS) {
+      Object value = reply.getHeader(header);
+      if (value != null) {
+        in.setHeader(header, value);
+      }
+    }
+    in.setBody(reply.getBody(byte[].class));
+    exchange.setRouteStop(true);
+  }
+
+  // Returns the owner's response, or null when the request has to be served here
+  private Exchange forward(Exchange exchange, String owner, String customerId) throws InterruptedException {
+    Message in = exchange.getIn();
+    String path = CUSTOMERS_PATH + URLEncoder.encode(customerId, StandardCharsets.UTF_8).replace("+", "%20");
+    String query = in.getHeader(Exchange.HTTP_QUERY, String.class);
+    String acceptEncoding = in.getHeader(ACCEPT_ENCODING, String.class);
+    String client = clientHeader != null ? in.getHeader(clientHeader, String.class) : null;
+
+    // A fresh exchange, so none of this request's Camel headers leak into the forwarded one
+    Future<Exchange> call = forwarders.submit(() -> {
+      inFlight.incrementAndGet();
+      try {
+        return producerTemplate().send(owner + endpointOptions, request -> {
+          Message message = request.getIn();
+          message.setHeader(Exchange.HTTP_METHOD, "GET");
+          message.setHeader(Exchange.HTTP_PATH, path);
+          if (query != null) {
+            message.setHeader(Exchange.HTTP_QUERY, query);
+          }
+          if (acceptEncoding != null) {
+            message.setHeader(ACCEPT_ENCODING, acceptEncoding);
+          }
+          if (client != null) {
+            // The owner applies the per-client rate limit
+            message.setHeader(clientHeader, client);
+          }
+          message.setHeader(FORWARDED_BY_HEADER, self);
+        });
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    });
+
+    Exchange response;
+    try {
+      response = call.get(forwardTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // Interrupting a virtual thread blocked on a socket closes the socket, so the lease is released now
+      call.cancel(true);
+      timeoutFallback.increment();
+      logger.debug("Peer {} did not answer within {}, serving {} locally", owner, properties.getForwardTimeout(),
+          customerId);
+      return null;
+    } catch (InterruptedException e) {
+      call.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      errorFallback.increment();
+      logger.debug("Forwarding to peer {} failed, serving {} locally: {}", owner, customerId, e.getCause().getMessage());
+      return null;
+    }
+    if (response.getException() != null) {
+      errorFallback.increment();
+      logger.debug("Forwarding to peer {} failed, serving {} locally: {}", owner, customerId,
+          response.getException().getMessage());
+      return null;
+    }
+    return response;
+  }
+
+  /**
+   * Rebuilds the ring from the peer list and file; runs on a schedule so file changes are picked up.
+   */
+  @Scheduled(initialDelayString = "${application.sharding.refresh-interval:10s}",
+      fixedDelayString = "${application.sharding.refresh-interval:10s}")
+  public void refresh() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    Set<String> nodes = new LinkedHashSet<>();
+    nodes.add(self);
+    for (String peer : properties.getPeers()) {
+      nodes.add(normalize(peer));
+    }
+    if (properties.getPeersFile() != null && !properties.getPeersFile().isBlank()) {
+      try {
+        for (String line : Files.readAllLines(Path.of(properties.getPeersFile()))) {
+          int comment = line.indexOf('#');
+          String peer = (comment >= 0 ? line.substring(0, comment) : line).trim();
+          if (!peer.isEmpty()) {
+            nodes.add(normalize(peer));
+          }
+        }
+      } catch (IOException e) {
+        // Keep the current ring, the file may be in the middle of being replaced
+        logger.warn("Cannot read peers file {}: {}", properties.getPeersFile(), e.getMessage());
+        if (ring != null) {
+          return;
+        }
+      }
+    }
+
+    ConsistentHashRing current = ring;
+    List<String> sorted = new ArrayList<>(nodes);
+    sorted.sort(null);
+    if (current != null && current.nodes().equals(sorted)) {
+      return;
+    }
+    ring = new ConsistentHashRing(sorted, properties.getVirtualNodes());
+    logger.info("Customer shard ring has {} nodes, this node owns {}%", sorted.size(),
+        Math.round(ownership() * 1000) / 10.0);
+  }
+
+  ConsistentHashRing ring() {
+    return ring;
+  }
+
+  private double ownership() {
+    ConsistentHashRing current = ring;
+    return current != null ? current.ownership().getOrDefault(self, 0.0) : 1.0;
+  }
+
+  private ProducerTemplate producerTemplate() {
+    ProducerTemplate template = producerTemplate;
+    if (template == null) {
+      synchronized (this) {
+        template = producerTemplate;
+        if (template == null) {
+          template = camelContext.createProducerTemplate();
+          producerTemplate = template;
+        }
+      }
+    }
+    return template;
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    forwarders.shutdownNow();
+    if (producerTemplate != null) {
+      producerTemplate.stop();
+    }
+  }
+
+  private static String normalize(String baseUrl) {
+    String trimmed = baseUrl.trim();
+    return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+  }
+}
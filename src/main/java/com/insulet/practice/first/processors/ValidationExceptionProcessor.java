@@ -5,9 +5,11 @@ import java.util.stream.Collectors;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.apache.camel.component.bean.validator.BeanValidationException;
 import org.springframework.stereotype.Component;
 
-import com.insulet.practice.first.model.ErrorResponse;
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.metrics.ValidationViolationCounter;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -15,24 +17,40 @@ import jakarta.validation.ConstraintViolationException;
 @Component
 public class ValidationExceptionProcessor implements Processor {
 
+  private final ValidationViolationCounter violationCounter;
+  private final ErrorResponseWriter errorResponseWriter;
+
+  public ValidationExceptionProcessor(ValidationViolationCounter violationCounter,
+      ErrorResponseWriter errorResponseWriter) {
+    this.violationCounter = violationCounter;
+    this.errorResponseWriter = errorResponseWriter;
+  }
+
   @Override
   public void process(Exchange exchange) throws Exception {
-    org.apache.camel.ValidationException validationException = exchange.getProperty(Exchange.EXCEPTION_CAUGHT,
-        org.apache.camel.ValidationException.class);
+    Exception exception = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
 
     String errorMessage;
-    if (validationException.getCause() instanceof ConstraintViolationException cve) {
-      Set<ConstraintViolation<?>> violations = cve.getConstraintViolations();
-      errorMessage = violations.stream()
-          .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
-          .collect(Collectors.joining(", "));
+    if (exception instanceof RequestRejectedException rejected) {
+      // Counted by RequestPrecheck, the message is already the cached violation list
+      errorMessage = rejected.getMessage();
+    } else if (exception instanceof BeanValidationException bve) {
+      violationCounter.count(bve.getConstraintViolations());
+      errorMessage = describe(bve.getConstraintViolations());
+    } else if (exception.getCause() instanceof ConstraintViolationException cve) {
+      violationCounter.count(cve.getConstraintViolations());
+      errorMessage = describe(cve.getConstraintViolations());
     } else {
-      errorMessage = validationException.getMessage();
+      errorMessage = exception.getMessage();
     }
 
-    ErrorResponse response = new ErrorResponse(
-        errorMessage, "ValidationException", "400", System.currentTimeMillis());
+    exchange.getMessage().setBody(
+        errorResponseWriter.write(errorMessage, "ValidationException", 400, System.currentTimeMillis()));
+  }
 
-    exchange.getMessage().setBody(response);
+  private static String describe(Set<? extends ConstraintViolation<?>> violations) {
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .collect(Collectors.joining(", "));
   }
-}
\ No newline at end of file
+}
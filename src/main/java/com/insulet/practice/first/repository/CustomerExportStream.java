@@ -0,0 +1,153 @@
+package com.insulet.practice.first.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Renders customer records as NDJSON or a JSON array one row at a time while the caller reads,
+ * so memory stays constant regardless of how many rows the query returns. Closing the stream
+ * before the last row or running past the deadline cancels the running statement.
+ */
+public class CustomerExportStream extends InputStream {
+
+  private static final Logger logger = LoggerFactory.getLogger(CustomerExportStream.class);
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final ObjectWriter writer;
+  private final boolean jsonArray;
+  private final long deadline;
+
+  private byte[] chunk = EMPTY;
+  private int position;
+  private long rows;
+  private boolean exhausted;
+  private boolean released;
+
+  CustomerExportStream(Connection connection, PreparedStatement statement, ResultSet resultSet,
+      ObjectWriter writer, boolean jsonArray, long deadline) {
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.writer = writer;
+    this.jsonArray = jsonArray;
+    this.deadline = deadline;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return chunk[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(length, chunk.length - position);
+    System.arraycopy(chunk, position, buffer, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() {
+    // Not exhausted means the client went away or the write failed, stop the query server-side
+    release(!exhausted);
+  }
+
+  private boolean fill() throws IOException {
+    while (position >= chunk.length) {
+      if (exhausted) {
+        return false;
+      }
+      chunk = nextChunk();
+      position = 0;
+    }
+    return true;
+  }
+
+  private byte[] nextChunk() throws IOException {
+    if (released) {
+      throw new IOException("Export stream already closed");
+    }
+    if (System.nanoTime() - deadline > 0) {
+      release(true);
+      throw new IOException("Customer export exceeded its maximum duration after " + rows + " rows");
+    }
+    try {
+      if (!resultSet.next()) {
+        exhausted = true;
+        release(false);
+        if (!jsonArray) {
+          return EMPTY;
+        }
+        return rows == 0 ? new byte[] { '[', ']' } : new byte[] { ']' };
+      }
+      byte[] row = writer.writeValueAsBytes(CustomerRepository.mapRow(resultSet));
+      byte[] framed = new byte[row.length + 1];
+      if (jsonArray) {
+        framed[0] = (byte) (rows == 0 ? '[' : ',');
+        System.arraycopy(row, 0, framed, 1, row.length);
+      } else {
+        System.arraycopy(row, 0, framed, 0, row.length);
+        framed[row.length] = '\n';
+      }
+      rows++;
+      return framed;
+    } catch (SQLException e) {
+      release(true);
+      throw new IOException("Customer export failed after " + rows + " rows", e);
+    }
+  }
+
+  private void release(boolean cancel) {
+    if (released) {
+      return;
+    }
+    released = true;
+    if (cancel) {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        logger.debug("Could not cancel export query: {}", e.getMessage());
+      }
+    }
+    closeQuietly(resultSet);
+    closeQuietly(statement);
+    try {
+      connection.rollback();
+      connection.setAutoCommit(true);
+      connection.setReadOnly(false);
+    } catch (SQLException e) {
+      logger.debug("Could not reset export connection: {}", e.getMessage());
+    }
+    closeQuietly(connection);
+  }
+
+  private static void closeQuietly(AutoCloseable resource) {
+    try {
+      resource.close();
+    } catch (Exception e) {
+      logger.debug("Could not close export resource: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package com.insulet.practice.first.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insulet.practice.first.model.CustomerPage;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.model.SuccessResponse;
+
+@Repository
+public class CustomerRepository {
+
+  static final DateTimeFormatter DOB_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+      .withZone(ZoneOffset.UTC);
+
+  static final int HAS_START = 1;
+  static final int HAS_END = 2;
+  static final int HAS_CURSOR = 4;
+
+  // One statement per filter combination keeps the SQL text stable for statement caching
+  private static final String[] STATEMENTS = new String[8];
+
+  static {
+    for (int filters = 0; filters < STATEMENTS.length; filters++) {
+      StringBuilder sql = new StringBuilder(
+          "SELECT id, recorded_at, name, address, salary, dob FROM customer_records WHERE customer_id = :customerId");
+      if ((filters & HAS_START) != 0) {
+        sql.append(" AND recorded_at >= :startDate");
+      }
+      if ((filters & HAS_END) != 0) {
+        sql.append(" AND recorded_at <= :endDate");
+      }
+      if ((filters & HAS_CURSOR) != 0) {
+        // Seek past the last row of the previous page, matches the ORDER BY below
+        sql.append(" AND (recorded_at < :afterRecordedAt OR (recorded_at = :afterRecordedAt AND id < :afterId))");
+      }
+      sql.append(" ORDER BY recorded_at DESC, id DESC LIMIT :limit OFFSET :offset");
+      STATEMENTS[filters] = sql.toString();
+    }
+  }
+
+  private static final String[] EXPORT_STATEMENTS = new String[4];
+
+  static {
+    for (int filters = 0; filters < EXPORT_STATEMENTS.length; filters++) {
+      StringBuilder sql = new StringBuilder(
+          "SELECT name, address, salary, dob FROM customer_records WHERE customer_id = ?");
+      if ((filters & HAS_START) != 0) {
+        sql.append(" AND recorded_at >= ?");
+      }
+      if ((filters & HAS_END) != 0) {
+        sql.append(" AND recorded_at <= ?");
+      }
+      sql.append(" ORDER BY recorded_at DESC, id DESC");
+      EXPORT_STATEMENTS[filters] = sql.toString();
+    }
+  }
+
+  // IN lists are padded to one of these sizes so a batch produces at most three statement shapes
+  static final int[] BATCH_SIZES = { 10, 50, 100 };
+
+  private static final String[] BATCH_STATEMENTS = new String[4];
+
+  static {
+    for (int filters = 0; filters < BATCH_STATEMENTS.length; filters++) {
+      StringBuilder sql = new StringBuilder(
+          "SELECT customer_id, name, address, salary, dob FROM ("
+              + "SELECT customer_id, name, address, salary, dob, "
+              + "ROW_NUMBER() OVER (PARTITION BY customer_id ORDER BY recorded_at DESC, id DESC) AS row_num "
+              + "FROM customer_records WHERE customer_id IN (:customerIds)");
+      if ((filters & HAS_START) != 0) {
+        sql.append(" AND recorded_at >= :startDate");
+      }
+      if ((filters & HAS_END) != 0) {
+        sql.append(" AND recorded_at <= :endDate");
+      }
+      // Same page of each customer as findRecords would return for it
+      sql.append(") ranked WHERE row_num > :offset AND row_num <= :lastRow ORDER BY customer_id, row_num");
+      BATCH_STATEMENTS[filters] = sql.toString();
+    }
+  }
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public CustomerRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public CustomerPage findRecords(CustomerQuery query) {
+    if (query.limit() == 0) {
+      return CustomerPage.EMPTY;
+    }
+
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("customerId", query.customerId())
+        .addValue("limit", query.limit())
+        .addValue("offset", query.offset());
+
+    int filters = 0;
+    if (query.startEpochMillis() != null) {
+      params.addValue("startDate", utc(query.startEpochMillis()));
+      filters |= HAS_START;
+    }
+    if (query.endEpochMillis() != null) {
+      params.addValue("endDate", utc(query.endEpochMillis()));
+      filters |= HAS_END;
+    }
+    if (query.after() != null) {
+      params.addValue("afterRecordedAt", query.after().recordedAt());
+      params.addValue("afterId", query.after().id());
+      filters |= HAS_CURSOR;
+    }
+
+    return jdbcTemplate.query(STATEMENTS[filters], params, pageExtractor(query.limit()));
+  }
+
+  /**
+   * Fetches the same page for many customers with one statement per chunk of IDs. The query's
+   * customerId and cursor are ignored. Every requested ID is present in the result, mapped to an
+   * empty list when it has no records.
+   */
+  public Map<String, List<SuccessResponse>> findRecords(List<String> customerIds, CustomerQuery query) {
+    Map<String, List<SuccessResponse>> records = new HashMap<>(customerIds.size() * 2);
+    for (String customerId : customerIds) {
+      records.put(customerId, new ArrayList<>());
+    }
+    if (query.limit() == 0 || customerIds.isEmpty()) {
+      return records;
+    }
+
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("offset", query.offset())
+        .addValue("lastRow", query.offset() + query.limit());
+    int filters = 0;
+    if (query.startEpochMillis() != null) {
+      params.addValue("startDate", utc(query.startEpochMillis()));
+      filters |= HAS_START;
+    }
+    if (query.endEpochMillis() != null) {
+      params.addValue("endDate", utc(query.endEpochMillis()));
+      filters |= HAS_END;
+    }
+
+    int maxChunk = BATCH_SIZES[BATCH_SIZES.length - 1];
+    for (int from = 0; from < customerIds.size(); from += maxChunk) {
+      List<String> chunk = customerIds.subList(from, Math.min(customerIds.size(), from + maxChunk));
+      params.addValue("customerIds", padded(chunk));
+      jdbcTemplate.query(BATCH_STATEMENTS[filters], params, (RowCallbackHandler) rs -> {
+        records.get(rs.getString("customer_id")).add(mapRow(rs));
+      });
+    }
+    return records;
+  }
+
+  /**
+   * Opens a forward-only cursor over every record matching the query's customer and date range,
+   * ignoring paging. The returned stream owns the connection until it is exhausted, closed or
+   * {@code maxDuration} has passed, so the pool's leak detection only needs to stay above that.
+   */
+  public CustomerExportStream openExport(CustomerQuery query, int fetchSize, Duration maxDuration,
+      ObjectWriter writer, boolean jsonArray) throws SQLException {
+    DataSource dataSource = jdbcTemplate.getJdbcTemplate().getDataSource();
+    Connection connection = dataSource.getConnection();
+    try {
+      // Postgres only honours the fetch size inside a transaction, otherwise it buffers the whole result
+      connection.setAutoCommit(false);
+      connection.setReadOnly(true);
+      int filters = (query.startEpochMillis() != null ? HAS_START : 0) | (query.endEpochMillis() != null ? HAS_END : 0);
+      PreparedStatement statement = connection.prepareStatement(EXPORT_STATEMENTS[filters],
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      int index = 1;
+      statement.setString(index++, query.customerId());
+      if (query.startEpochMillis() != null) {
+        statement.setObject(index++, utc(query.startEpochMillis()));
+      }
+      if (query.endEpochMillis() != null) {
+        statement.setObject(index, utc(query.endEpochMillis()));
+      }
+      return new CustomerExportStream(connection, statement, statement.executeQuery(), writer, jsonArray,
+          System.nanoTime() + maxDuration.toNanos());
+    } catch (SQLException | RuntimeException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  /**
+   * The UTC wall-clock time of an instant, as stored in the TIMESTAMP (without time zone) columns.
+   * java.sql.Timestamp would convert through the JVM default zone and shift every date filter by
+   * the host's UTC offset.
+   */
+  static LocalDateTime utc(long epochMillis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+  }
+
+  /**
+   * Page statement for a combination of HAS_START, HAS_END and HAS_CURSOR, shared with
+   * {@link ReactiveCustomerRepository}.
+   */
+  static String pageStatement(int filters) {
+    return STATEMENTS[filters];
+  }
+
+  static List<String> padded(List<String> chunk) {
+    int size = BATCH_SIZES[BATCH_SIZES.length - 1];
+    for (int candidate : BATCH_SIZES) {
+      if (chunk.size() <= candidate) {
+        size = candidate;
+        break;
+      }
+    }
+    // Repeating an ID inside IN (...) changes nothing but keeps the statement text the same
+    String[] ids = chunk.toArray(new String[size]);
+    Arrays.fill(ids, chunk.size(), size, chunk.get(chunk.size() - 1));
+    return Arrays.asList(ids);
+  }
+
+  private static ResultSetExtractor<CustomerPage> pageExtractor(int limit) {
+    return rs -> {
+      List<SuccessResponse> records = new ArrayList<>(Math.min(limit, 64));
+      long lastId = 0;
+      LocalDateTime lastRecordedAt = null;
+      while (rs.next()) {
+        lastId = rs.getLong("id");
+        lastRecordedAt = rs.getObject("recorded_at", LocalDateTime.class);
+        records.add(mapRow(rs));
+      }
+      // A short page is the last one, a full page may have more behind it
+      String nextCursor = records.size() == limit ? PageCursor.of(lastRecordedAt, lastId).encode() : null;
+      return new CustomerPage(List.copyOf(records), nextCursor);
+    };
+  }
+
+  static SuccessResponse mapRow(ResultSet rs) throws SQLException {
+    double salary = rs.getDouble("salary");
+    Double boxedSalary = rs.wasNull() ? null : salary;
+    LocalDateTime dob = rs.getObject("dob", LocalDateTime.class);
+    return new SuccessResponse(
+        rs.getString("name"),
+        rs.getString("address"),
+        boxedSalary,
+        dob != null ? DOB_FORMAT.format(dob.toInstant(ZoneOffset.UTC)) : null);
+  }
+}
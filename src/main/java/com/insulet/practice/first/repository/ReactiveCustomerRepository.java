@@ -0,0 +1,159 @@
+package com.insulet.practice.first.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+
+import com.insulet.practice.first.model.CustomerPage;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.model.R2dbcProperties;
+import com.insulet.practice.first.model.SuccessResponse;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking twin of {@link CustomerRepository#findRecords(CustomerQuery)} over R2DBC, for
+ * application.request.execution.mode=reactive. Runs the same statements and returns the same pages
+ * and cursors, so the two modes can be load-tested against each other.
+ *
+ * <p>The pool is owned here rather than exposed as a ConnectionFactory bean, see
+ * {@link R2dbcProperties}. Its max-acquire-time bounds how long a lookup waits for a connection.
+ */
+@Repository
+@ConditionalOnProperty(name = "application.request.execution.mode", havingValue = "reactive")
+public class ReactiveCustomerRepository implements DisposableBean {
+
+  // Same columns as WriteBehindAuditQueue.INSERT_SQL, named because R2DBC drivers disagree on ? markers
+  static final String AUDIT_SQL = "INSERT INTO customer_requests (customer_id, start_date, end_date, page, rec_limit) "
+      + "VALUES (:customerId, :startDate, :endDate, :page, :limit)";
+
+  private final ConnectionPool pool;
+  private final DatabaseClient databaseClient;
+
+  public ReactiveCustomerRepository(R2dbcProperties properties) {
+    ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+    if (properties.getUsername() != null) {
+      options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+    }
+    if (properties.getPassword() != null) {
+      options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+    }
+    this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+        .name("customer-r2dbc")
+        .maxSize(properties.getMaxSize())
+        .maxAcquireTime(properties.getMaxAcquireTime())
+        .maxIdleTime(properties.getMaxIdleTime())
+        .build());
+    this.databaseClient = DatabaseClient.create(pool);
+  }
+
+  public Mono<CustomerPage> findRecords(CustomerQuery query) {
+    if (query.limit() == 0) {
+      return Mono.just(CustomerPage.EMPTY);
+    }
+
+    int filters = 0;
+    if (query.startEpochMillis() != null) {
+      filters |= CustomerRepository.HAS_START;
+    }
+    if (query.endEpochMillis() != null) {
+      filters |= CustomerRepository.HAS_END;
+    }
+    if (query.after() != null) {
+      filters |= CustomerRepository.HAS_CURSOR;
+    }
+
+    DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(CustomerRepository.pageStatement(filters))
+        .bind("customerId", query.customerId())
+        .bind("limit", query.limit())
+        .bind("offset", query.offset());
+    // TIMESTAMP columns hold UTC wall-clock time, see CustomerRepository.utc
+    if (query.startEpochMillis() != null) {
+      statement = statement.bind("startDate", CustomerRepository.utc(query.startEpochMillis()));
+    }
+    if (query.endEpochMillis() != null) {
+      statement = statement.bind("endDate", CustomerRepository.utc(query.endEpochMillis()));
+    }
+    if (query.after() != null) {
+      statement = statement
+          .bind("afterRecordedAt", query.after().recordedAt())
+          .bind("afterId", query.after().id());
+    }
+
+    int limit = query.limit();
+    return statement.map(PageRow::of)
+        .all()
+        .collectList()
+        .map(rows -> page(rows, limit));
+  }
+
+  /**
+   * Inserts the request into customer_requests, the reactive counterpart of the route's sql:
+   * endpoint in sync audit mode.
+   */
+  public Mono<Void> recordRequest(CustomerRequest request) {
+    return databaseClient.sql(AUDIT_SQL)
+        .bind("customerId", request.getCustomerId())
+        .bind("startDate", bindable(request.getStartDate()))
+        .bind("endDate", bindable(request.getEndDate()))
+        .bind("page", bindable(request.getPage()))
+        .bind("limit", bindable(request.getLimit()))
+        .then();
+  }
+
+  @Override
+  public void destroy() {
+    pool.dispose();
+  }
+
+  private static CustomerPage page(List<PageRow> rows, int limit) {
+    List<SuccessResponse> records = new ArrayList<>(rows.size());
+    for (PageRow row : rows) {
+      records.add(row.record());
+    }
+    // Same rule as CustomerRepository: a full page may have more behind it
+    String nextCursor = null;
+    if (rows.size() == limit) {
+      PageRow last = rows.get(rows.size() - 1);
+      nextCursor = PageCursor.of(last.recordedAt(), last.id()).encode();
+    }
+    return new CustomerPage(List.copyOf(records), nextCursor);
+  }
+
+  private static Parameter bindable(String value) {
+    return Parameter.fromOrEmpty(value, String.class);
+  }
+
+  private static Parameter bindable(Integer value) {
+    return Parameter.fromOrEmpty(value, Integer.class);
+  }
+
+  record PageRow(long id, LocalDateTime recordedAt, SuccessResponse record) {
+
+    static PageRow of(Row row) {
+      BigDecimal salary = row.get("salary", BigDecimal.class);
+      LocalDateTime dob = row.get("dob", LocalDateTime.class);
+      SuccessResponse record = new SuccessResponse(
+          row.get("name", String.class),
+          row.get("address", String.class),
+          salary != null ? salary.doubleValue() : null,
+          dob != null ? CustomerRepository.DOB_FORMAT.format(dob.toInstant(ZoneOffset.UTC)) : null);
+      return new PageRow(row.get("id", Long.class), row.get("recorded_at", LocalDateTime.class), record);
+    }
+  }
+}
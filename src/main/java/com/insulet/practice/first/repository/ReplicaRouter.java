@@ -0,0 +1,227 @@
+package com.insulet.practice.first.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.config.ConnectionPoolConfig;
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.insulet.practice.first.model.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends customer reads to the read replicas and leaves everything else on the primary. Each replica
+ * has its own pool and is checked on a schedule; one that is unreachable or more than
+ * {@code max-lag} behind stops receiving reads until a later check finds it caught up. With no
+ * usable replica, or when a replica fails to hand out a connection, reads go to the primary.
+ *
+ * <p>Only customer_records is read through here and only customer_requests is written, so a lagging
+ * replica never hides a write from the request that made it.
+ */
+@Component("replicas")
+public class ReplicaRouter implements HealthIndicator, DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+  private static final String PRIMARY = "primary";
+
+  private final Node primary;
+  private final List<Replica> replicas;
+  private final String lagQuery;
+  private final double maxLagSeconds;
+  private final AtomicInteger next = new AtomicInteger();
+  private final DataSource readDataSource = new ReadDataSource();
+
+  private final Counter unhealthyFallback;
+  private final Counter errorFallback;
+
+  public ReplicaRouter(DataSource dataSource, ReplicaProperties properties, ConnectionPoolProperties poolProperties,
+      ExecutionProperties executionProperties, MeterRegistry meterRegistry) {
+    this.primary = new Node(PRIMARY, dataSource, meterRegistry);
+    this.lagQuery = properties.getLagQuery();
+    this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+
+    List<Replica> configured = new ArrayList<>();
+    if (properties.isEnabled()) {
+      for (ReplicaProperties.Target target : properties.getTargets()) {
+        String name = target.getName() != null ? target.getName() : "replica" + configured.size();
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + name);
+        pool.setJdbcUrl(target.getUrl());
+        pool.setUsername(target.getUsername());
+        pool.setPassword(target.getPassword());
+        pool.setReadOnly(true);
+        pool.setMetricRegistry(meterRegistry);
+        ConnectionPoolConfig.customize(pool, poolProperties, executionProperties);
+        configured.add(new Replica(name, pool, meterRegistry));
+      }
+    }
+    this.replicas = List.copyOf(configured);
+
+    this.unhealthyFallback = Counter.builder("customer.datasource.fallback")
+        .description("Reads sent to the primary although replicas are configured")
+        .tag("reason", "unhealthy")
+        .register(meterRegistry);
+    this.errorFallback = Counter.builder("customer.datasource.fallback")
+        .description("Reads sent to the primary although replicas are configured")
+        .tag("reason", "error")
+        .register(meterRegistry);
+  }
+
+  /**
+   * DataSource for read-only queries. Every getConnection picks a target, so pooled connections are
+   * never pinned to a replica that has since fallen behind.
+   */
+  public DataSource readDataSource() {
+    return readDataSource;
+  }
+
+  @Scheduled(initialDelay = 0, fixedDelayString = "${application.datasource.replicas.check-interval:5s}")
+  public void check() {
+    for (Replica replica : replicas) {
+      boolean wasHealthy = replica.healthy;
+      try {
+        Double lag = new JdbcTemplate(replica.dataSource).queryForObject(lagQuery, Double.class);
+        replica.lagSeconds = lag != null ? lag : 0;
+        replica.healthy = replica.lagSeconds <= maxLagSeconds;
+      } catch (DataAccessException e) {
+        replica.lagSeconds = Double.NaN;
+        replica.healthy = false;
+        if (wasHealthy) {
+          logger.warn("Replica {} failed its check: {}", replica.name, e.getMessage());
+        }
+      }
+      if (replica.healthy != wasHealthy) {
+        logger.info("Replica {} {} reads (lag {}s)", replica.name, replica.healthy ? "serves" : "no longer serves",
+            replica.lagSeconds);
+      }
+    }
+  }
+
+  @Override
+  public Health health() {
+    Map<String, Object> targets = new LinkedHashMap<>();
+    boolean anyHealthy = false;
+    for (Replica replica : replicas) {
+      targets.put(replica.name, Map.of("healthy", replica.healthy, "lagSeconds", replica.lagSeconds));
+      anyHealthy |= replica.healthy;
+    }
+    // Reads still work from the primary, so lagging replicas degrade capacity rather than availability
+    return Health.up()
+        .withDetail("readsFrom", anyHealthy ? "replicas" : PRIMARY)
+        .withDetail("replicas", targets)
+        .build();
+  }
+
+  @Override
+  public void destroy() {
+    for (Replica replica : replicas) {
+      replica.pool.close();
+    }
+  }
+
+  Node route() {
+    int size = replicas.size();
+    if (size == 0) {
+      return primary;
+    }
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (replica.healthy) {
+        return replica;
+      }
+    }
+    unhealthyFallback.increment();
+    return primary;
+  }
+
+  private final class ReadDataSource extends AbstractDataSource {
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      Node target = route();
+      try {
+        Connection connection = target.dataSource.getConnection();
+        target.reads.increment();
+        return connection;
+      } catch (SQLException e) {
+        if (!(target instanceof Replica replica)) {
+          throw e;
+        }
+        // Take it out now rather than failing every read until the next check
+        replica.healthy = false;
+        errorFallback.increment();
+        logger.warn("Replica {} refused a connection, reading from the primary: {}", replica.name, e.getMessage());
+        Connection connection = primary.dataSource.getConnection();
+        primary.reads.increment();
+        return connection;
+      }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return primary.dataSource.getConnection(username, password);
+    }
+  }
+
+  static class Node {
+
+    final String name;
+    final DataSource dataSource;
+    final Counter reads;
+
+    Node(String name, DataSource dataSource, MeterRegistry meterRegistry) {
+      this.name = name;
+      this.dataSource = dataSource;
+      this.reads = Counter.builder("customer.datasource.reads")
+          .description("Read connections handed out per target")
+          .tag("target", name)
+          .register(meterRegistry);
+    }
+  }
+
+  static final class Replica extends Node {
+
+    final HikariDataSource pool;
+    // Not healthy until the first check has measured the lag
+    volatile boolean healthy;
+    volatile double lagSeconds = Double.NaN;
+
+    Replica(String name, HikariDataSource dataSource, MeterRegistry meterRegistry) {
+      super(name, dataSource, meterRegistry);
+      this.pool = dataSource;
+      Gauge.builder("customer.datasource.replica.lag", this, replica -> replica.lagSeconds)
+          .description("Replay lag of the replica in seconds, as of the last check")
+          .baseUnit("seconds")
+          .tag("target", name)
+          .register(meterRegistry);
+      Gauge.builder("customer.datasource.replica.healthy", this, replica -> replica.healthy ? 1 : 0)
+          .description("1 while the replica serves reads, 0 while reads skip it")
+          .tag("target", name)
+          .register(meterRegistry);
+    }
+  }
+}
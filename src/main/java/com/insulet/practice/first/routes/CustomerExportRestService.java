@@ -0,0 +1,131 @@
+package com.insulet.practice.first.routes;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.model.rest.RestBindingMode;
+import org.springframework.stereotype.Component;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.exceptions.RateLimitExceededException;
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.logging.CustomerRequestLog;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.RequestDefaults;
+import com.insulet.practice.first.model.ValidationProperties;
+import com.insulet.practice.first.processors.ExportConcurrencyLimiter;
+import com.insulet.practice.first.processors.RateLimiter;
+import com.insulet.practice.first.processors.RequestPrecheck;
+import com.insulet.practice.first.processors.ServerExceptionProcessor;
+import com.insulet.practice.first.processors.ValidationExceptionProcessor;
+import com.insulet.practice.first.service.CustomerExportService;
+
+@Component
+public class CustomerExportRestService extends RouteBuilder {
+
+  static final String NDJSON = "application/x-ndjson";
+
+  private final ServerExceptionProcessor serverExceptionProcessor;
+  private final ValidationExceptionProcessor validationExceptionProcessor;
+  private final RequestDefaults requestDefaults;
+  private final CustomerExportService customerExportService;
+  private final ExportConcurrencyLimiter exportLimiter;
+  private final CustomerRequestLog requestLog;
+  private final RequestPrecheck requestPrecheck;
+  private final RateLimiter rateLimiter;
+  private final ValidationProperties validationProperties;
+
+  public CustomerExportRestService(ServerExceptionProcessor serverExceptionProcessor,
+      ValidationExceptionProcessor validationExceptionProcessor,
+      RequestDefaults requestDefaults,
+      CustomerExportService customerExportService,
+      ExportConcurrencyLimiter exportLimiter,
+      CustomerRequestLog requestLog,
+      RequestPrecheck requestPrecheck,
+      RateLimiter rateLimiter,
+      ValidationProperties validationProperties) {
+    this.serverExceptionProcessor = serverExceptionProcessor;
+    this.validationExceptionProcessor = validationExceptionProcessor;
+    this.requestDefaults = requestDefaults;
+    this.customerExportService = customerExportService;
+    this.exportLimiter = exportLimiter;
+    this.requestLog = requestLog;
+    this.requestPrecheck = requestPrecheck;
+    this.rateLimiter = rateLimiter;
+    this.validationProperties = validationProperties;
+  }
+
+  @Override
+  public void configure() {
+    configureExceptionHandlers();
+
+    // Binding is off so the body is streamed to the client as-is instead of being marshalled in memory
+    rest("/customers")
+        .get("/{customerId}/export")
+        .bindingMode(RestBindingMode.off)
+        .produces(NDJSON)
+        .to("direct:exportCustomerById");
+
+    RouteDefinition route = from("direct:exportCustomerById")
+        .streamCache("false")
+        .process(requestLog.track())
+        // Exports share the customer's rate budget but stay out of the adaptive limit, their
+        // latency grows with the result size rather than with load. They hold a connection for
+        // minutes, so they get their own permits instead of taking the lookups' ones
+        .process(rateLimiter)
+        .process(exportLimiter)
+        .process(
+            exchange -> {
+              exchange.getIn().setBody(CustomerRequest.fromExchange(exchange, requestDefaults.getLimit()));
+            })
+        .process(requestPrecheck);
+    if (validationProperties.getMode() == ValidationProperties.Mode.BEAN) {
+      route.to("bean-validator:validateCustomerRequest");
+    }
+    route.process(
+        exchange -> {
+          String format = exchange.getIn().getHeader("format", String.class);
+          boolean jsonArray = "json".equals(format);
+          if (format != null && !jsonArray && !"ndjson".equals(format)) {
+            throw new org.apache.camel.ValidationException(exchange, "format: must be ndjson or json");
+          }
+          CustomerRequest request = exchange.getIn().getBody(CustomerRequest.class);
+          exchange.getIn().setHeader(Exchange.CONTENT_TYPE, jsonArray ? "application/json" : NDJSON);
+          exchange.getIn().setBody(customerExportService.open(request, jsonArray));
+        });
+  }
+
+  private void configureExceptionHandlers() {
+    // The processors write finished JSON bytes, which suits this unbound route as-is
+    onException(RequestRejectedException.class)
+        .handled(true)
+        .setHeader(Exchange.CONTENT_TYPE, constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+        .process(validationExceptionProcessor);
+
+    onException(org.apache.camel.ValidationException.class)
+        .handled(true)
+        .setHeader(Exchange.CONTENT_TYPE, constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+        .process(validationExceptionProcessor);
+
+    onException(RateLimitExceededException.class)
+        .handled(true)
+        .setHeader(Exchange.CONTENT_TYPE, constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(429))
+        .process(serverExceptionProcessor);
+
+    onException(ConcurrencyLimitExceededException.class)
+        .handled(true)
+        .setHeader(Exchange.CONTENT_TYPE, constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(503))
+        .process(serverExceptionProcessor);
+
+    onException(Exception.class)
+        .handled(true)
+        .setHeader(Exchange.CONTENT_TYPE, constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(500))
+        .process(requestLog.failure())
+        .process(serverExceptionProcessor);
+  }
+}
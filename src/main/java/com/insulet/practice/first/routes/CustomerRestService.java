@@ -1,32 +1,116 @@
 package com.insulet.practice.first.routes;
 
+import java.util.function.Function;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
 import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.model.rest.RestBindingMode;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
+import com.insulet.practice.first.audit.AuditSpooler;
+import com.insulet.practice.first.audit.WriteBehindAuditQueue;
+import com.insulet.practice.first.config.ConnectionPoolConfig;
+import com.insulet.practice.first.exceptions.AuditQueueFullException;
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.exceptions.RateLimitExceededException;
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.logging.CustomerRequestLog;
+import com.insulet.practice.first.metrics.CustomerRouteMetrics;
+import com.insulet.practice.first.metrics.CustomerRouteMetrics.Stage;
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.CustomerBatchRequest;
+import com.insulet.practice.first.model.CustomerBatchResponse;
+import com.insulet.practice.first.model.CustomerPage;
 import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.ExecutionProperties;
 import com.insulet.practice.first.model.RequestDefaults;
+import com.insulet.practice.first.model.ValidationProperties;
+import com.insulet.practice.first.processors.AdaptiveConcurrencyLimiter;
+import com.insulet.practice.first.processors.ConcurrencyLimiter;
+import com.insulet.practice.first.processors.JsonResponseWriter;
+import com.insulet.practice.first.processors.RateLimiter;
+import com.insulet.practice.first.processors.RequestPrecheck;
 import com.insulet.practice.first.processors.ServerExceptionProcessor;
+import com.insulet.practice.first.processors.ShardRouter;
 import com.insulet.practice.first.processors.ValidationExceptionProcessor;
+import com.insulet.practice.first.repository.ReactiveCustomerRepository;
+import com.insulet.practice.first.service.CustomerBatchService;
+import com.insulet.practice.first.service.CustomerLookupService;
+
+import reactor.core.publisher.Mono;
 
 @Component
 public class CustomerRestService extends RouteBuilder {
 
-  private static final Logger logger = LoggerFactory.getLogger(CustomerRestService.class);
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
   private final ServerExceptionProcessor serverExceptionProcessor;
   private final ValidationExceptionProcessor validationExceptionProcessor;
   private final RequestDefaults requestDefaults;
+  private final AuditProperties auditProperties;
+  private final ConnectionPoolProperties poolProperties;
+  private final ExecutionProperties executionProperties;
+  private final ValidationProperties validationProperties;
+  private final WriteBehindAuditQueue writeBehindAuditQueue;
+  private final AuditSpooler auditSpooler;
+  private final CustomerLookupService customerLookupService;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final CustomerRouteMetrics routeMetrics;
+  private final CustomerRequestLog requestLog;
+  private final RequestPrecheck requestPrecheck;
+  private final RateLimiter rateLimiter;
+  private final ShardRouter shardRouter;
+  private final AdaptiveConcurrencyLimiter adaptiveLimiter;
+  private final CustomerBatchService customerBatchService;
+  private final JsonResponseWriter jsonResponseWriter;
+  private final ObjectProvider<ReactiveCustomerRepository> reactiveCustomerRepository;
 
   public CustomerRestService(ServerExceptionProcessor serverExceptionProcessor,
       ValidationExceptionProcessor validationExceptionProcessor,
-      RequestDefaults requestDefaults) {
+      RequestDefaults requestDefaults,
+      AuditProperties auditProperties,
+      ConnectionPoolProperties poolProperties,
+      ExecutionProperties executionProperties,
+      ValidationProperties validationProperties,
+      WriteBehindAuditQueue writeBehindAuditQueue,
+      AuditSpooler auditSpooler,
+      CustomerLookupService customerLookupService,
+      ConcurrencyLimiter concurrencyLimiter,
+      CustomerRouteMetrics routeMetrics,
+      CustomerRequestLog requestLog,
+      RequestPrecheck requestPrecheck,
+      RateLimiter rateLimiter,
+      ShardRouter shardRouter,
+      AdaptiveConcurrencyLimiter adaptiveLimiter,
+      CustomerBatchService customerBatchService,
+      JsonResponseWriter jsonResponseWriter,
+      ObjectProvider<ReactiveCustomerRepository> reactiveCustomerRepository) {
     this.serverExceptionProcessor = serverExceptionProcessor;
     this.validationExceptionProcessor = validationExceptionProcessor;
     this.requestDefaults = requestDefaults;
+    this.auditProperties = auditProperties;
+    this.poolProperties = poolProperties;
+    this.executionProperties = executionProperties;
+    this.validationProperties = validationProperties;
+    this.writeBehindAuditQueue = writeBehindAuditQueue;
+    this.auditSpooler = auditSpooler;
+    this.customerLookupService = customerLookupService;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.routeMetrics = routeMetrics;
+    this.requestLog = requestLog;
+    this.requestPrecheck = requestPrecheck;
+    this.rateLimiter = rateLimiter;
+    this.shardRouter = shardRouter;
+    this.adaptiveLimiter = adaptiveLimiter;
+    this.customerBatchService = customerBatchService;
+    this.jsonResponseWriter = jsonResponseWriter;
+    this.reactiveCustomerRepository = reactiveCustomerRepository;
   }
 
   @Override
@@ -34,49 +118,176 @@ public class CustomerRestService extends RouteBuilder {
     // Use platform-http component (aligned with camel-platform-http-starter)
     restConfiguration()
         .component("platform-http")
-        .bindingMode(RestBindingMode.json)
+        // Bodies are read and written by JsonResponseWriter, error handlers write ready-made JSON bytes
+        .bindingMode(RestBindingMode.off)
         .contextPath("/data-share/v1");
 
     configureExceptionHandlers();
 
     rest("/customers").get("/{customerId}").to("direct:getCustomerById");
 
-    from("direct:getCustomerById")
-        .log("Fetching customer with ID: ${header.customerId}")
+    RouteDefinition route = from("direct:getCustomerById")
+        .process(routeMetrics.begin())
+        .process(requestLog.track())
+        // Requests for customers owned by another node end here with that node's response, its limits apply
+        .process(shardRouter)
+        .process(rateLimiter)
+        .process(adaptiveLimiter)
+        .process(concurrencyLimiter)
+        .process(routeMetrics.mark(Stage.ADMISSION))
+        .process(
+            exchange -> {
+              exchange.getIn().setBody(CustomerRequest.fromExchange(exchange, requestDefaults.getLimit()));
+            })
+        .process(routeMetrics.mark(Stage.CONVERSION))
+        .process(requestPrecheck);
+    if (validationProperties.getMode() == ValidationProperties.Mode.BEAN) {
+      // The precheck already rejected anything invalid, this only matters if the two ever disagree
+      route.to("bean-validator:validateCustomerRequest");
+    }
+    route.process(routeMetrics.mark(Stage.VALIDATION));
+
+    boolean reactive = executionProperties.getMode() == ExecutionProperties.Mode.REACTIVE;
+    if (auditProperties.getMode() == AuditProperties.Mode.WRITE_BEHIND) {
+      // Hand the request to the batched writer, the HTTP thread never waits on the insert
+      route.process(writeBehindAuditQueue);
+    } else if (reactive) {
+      ReactiveCustomerRepository repository = reactiveCustomerRepository.getObject();
+      route.process(async(exchange -> {
+        CustomerRequest request = exchange.getIn().getBody(CustomerRequest.class);
+        return auditSpooler.record(request, () -> repository.recordRequest(request));
+      }));
+    } else if (auditProperties.getSpool().isEnabled()) {
+      // Same insert through JdbcTemplate, falling back to the local spool while the database is down
+      route.process(auditSpooler);
+    } else {
+      route.to(
+          "sql:INSERT INTO customer_requests (customer_id, start_date, end_date, page, rec_limit) "
+              + "VALUES (:#${body.customerId}, :#${body.startDate}, :#${body.endDate}, :#${body.page}, :#${body.limit})"
+              + "?dataSource=#dataSource&noop=true&template.queryTimeout="
+              + ConnectionPoolConfig.queryTimeoutSeconds(poolProperties));
+    }
+    route.process(routeMetrics.mark(Stage.AUDIT));
+
+    if (reactive) {
+      route.process(async(exchange -> customerLookupService
+          .lookupAsync(exchange.getIn().getBody(CustomerRequest.class))
+          .doOnNext(page -> setPage(exchange, page))
+          .then()));
+    } else {
+      route.process(
+          exchange -> {
+            CustomerRequest request = exchange.getIn().getBody(CustomerRequest.class);
+            setPage(exchange, customerLookupService.lookup(request));
+          });
+    }
+    route.process(routeMetrics.mark(Stage.LOOKUP))
+        .process(jsonResponseWriter.writePage())
+        .process(routeMetrics.mark(Stage.SERIALIZATION));
+
+    configureBatchGet();
+  }
+
+  private static void setPage(Exchange exchange, CustomerPage page) {
+    if (page.nextCursor() != null) {
+      exchange.getIn().setHeader(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    exchange.getIn().setBody(page.records());
+  }
+
+  // Reactive mode: the exchange is parked until the Mono completes and then continues on the thread
+  // that completed it, so no thread waits on the database in between
+  private static AsyncProcessor async(Function<Exchange, Mono<Void>> step) {
+    return new AsyncProcessorSupport() {
+      @Override
+      public boolean process(Exchange exchange, AsyncCallback callback) {
+        Mono<Void> result;
+        try {
+          result = step.apply(exchange);
+        } catch (RuntimeException e) {
+          exchange.setException(e);
+          callback.done(true);
+          return true;
+        }
+        result.subscribe(
+            null,
+            error -> {
+              exchange.setException(error);
+              callback.done(false);
+            },
+            () -> callback.done(false));
+        return false;
+      }
+    };
+  }
+
+  // Many customers in one call: one validation pass, one audit batch and one query per 100 IDs.
+  // Camel's rest endpoint URI (rest:verb:path:uriTemplate) splits on ':', hence /customers/batchGet
+  private void configureBatchGet() {
+    rest("/customers")
+        .post("/batchGet")
+        .type(CustomerBatchRequest.class)
+        .outType(CustomerBatchResponse.class)
+        .to("direct:batchGetCustomers");
+
+    // Not behind the adaptive limit, batch latency grows with the number of IDs rather than with load
+    from("direct:batchGetCustomers")
+        .process(requestLog.track())
+        // Client limit only, CustomerBatchService charges every customerId against its own bucket
+        .process(rateLimiter)
+        .process(concurrencyLimiter)
+        .process(jsonResponseWriter.readBatch())
+        .to("bean-validator:validateCustomerBatchRequest")
         .process(
             exchange -> {
-              CustomerRequest request = CustomerRequest.fromExchange(exchange, requestDefaults.getLimit());
-              logger.info("Received CustomerRequest: {}", request);
-              exchange.getIn().setBody(request);
+              CustomerBatchRequest batch = exchange.getIn().getBody(CustomerBatchRequest.class);
+              exchange.getIn().setBody(customerBatchService.batchGet(batch));
             })
-        .to("bean-validator:validateCustomerRequest")
-        .log("Validation successful for customer request")
-        .log("Saving customer request to database ${body.startDate} - ${body.endDate}")
-        .to(
-            "sql:INSERT INTO customer_requests (customer_id, start_date, end_date, page, rec_limit) "
-                + "VALUES (:#${body.customerId}, :#${body.startDate}, :#${body.endDate}, :#${body.page}, :#${body.limit})?dataSource=#dataSource")
-        .log("Customer request saved successfully")
-        .setBody(constant("Customer request created successfully"));
+        .process(jsonResponseWriter.writeBatch());
   }
 
   private void configureExceptionHandlers() {
+    // Rejected by the precheck before bean-validator, respond with HTTP 400
+    onException(RequestRejectedException.class)
+        .handled(true)
+        .setHeader("Content-Type", constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+        .process(validationExceptionProcessor);
+
     // Handle Bean Validation errors, respond with HTTP 400
     onException(org.apache.camel.ValidationException.class)
         .handled(true)
-        .log("ValidationException occurred: ${exception.message}")
-        .log("Stack trace: ${exception.stacktrace}")
         .setHeader("Content-Type", constant("application/json"))
         .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
         .process(validationExceptionProcessor);
 
+    // Write-behind queue is full, ask the client to back off, respond with HTTP 503
+    onException(AuditQueueFullException.class)
+        .handled(true)
+        .setHeader("Content-Type", constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(503))
+        .process(requestLog.failure())
+        .process(serverExceptionProcessor);
+
+    // Customer or client over its rate limit, Retry-After is set by the limiter, respond with HTTP 429
+    onException(RateLimitExceededException.class)
+        .handled(true)
+        .setHeader("Content-Type", constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(429))
+        .process(serverExceptionProcessor);
+
+    // Concurrency limit reached, shed the request instead of queueing on the JDBC pool
+    onException(ConcurrencyLimitExceededException.class)
+        .handled(true)
+        .setHeader("Content-Type", constant("application/json"))
+        .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(503))
+        .process(serverExceptionProcessor);
+
     onException(Exception.class)
         .handled(true)
-        .log("Exception occurred: ${exception.message}")
-        .log("Exception class: ${exception.class}")
-        .log("Stack trace: ${exception.stacktrace}")
-        .setBody(constant("Internal server error"))
         .setHeader("Content-Type", constant("application/json"))
         .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(500))
+        .process(requestLog.failure())
         .process(serverExceptionProcessor);
   }
 }
@@ -0,0 +1,95 @@
+package com.insulet.practice.first.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.insulet.practice.first.audit.CustomerRequestAudit;
+import com.insulet.practice.first.exceptions.RequestRejectedException;
+import com.insulet.practice.first.model.CustomerBatchEntry;
+import com.insulet.practice.first.model.CustomerBatchRequest;
+import com.insulet.practice.first.model.CustomerBatchResponse;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.ErrorResponse;
+import com.insulet.practice.first.model.RequestDefaults;
+import com.insulet.practice.first.model.SuccessResponse;
+import com.insulet.practice.first.processors.RateLimiter;
+import com.insulet.practice.first.processors.RequestPrecheck;
+import com.insulet.practice.first.repository.CustomerRepository;
+
+/**
+ * Serves POST /customers/batchGet. Every ID goes through the same constraints and per-customer
+ * rate limit as a single lookup; the admitted ones are audited and fetched together, the others get
+ * an error entry.
+ */
+@Service
+public class CustomerBatchService {
+
+  // Violations of the shared parameters are the same for every ID, they fail the whole batch
+  private static final int CUSTOMER_ID_VIOLATIONS = 1 << RequestPrecheck.Violation.CUSTOMER_ID_EMPTY.ordinal();
+
+  private final CustomerRepository customerRepository;
+  private final CustomerRequestAudit requestAudit;
+  private final RequestDefaults requestDefaults;
+  private final RateLimiter rateLimiter;
+
+  public CustomerBatchService(CustomerRepository customerRepository, CustomerRequestAudit requestAudit,
+      RequestDefaults requestDefaults, RateLimiter rateLimiter) {
+    this.customerRepository = customerRepository;
+    this.requestAudit = requestAudit;
+    this.requestDefaults = requestDefaults;
+    this.rateLimiter = rateLimiter;
+  }
+
+  public CustomerBatchResponse batchGet(CustomerBatchRequest batch) throws InterruptedException {
+    Integer page = batch.page() != null ? batch.page() : 0;
+    Integer limit = batch.limit() != null ? batch.limit() : requestDefaults.getLimit();
+
+    // Duplicates are answered once, in the order they were first requested
+    Set<String> customerIds = new LinkedHashSet<>(batch.customerIds());
+    List<CustomerRequest> valid = new ArrayList<>(customerIds.size());
+    List<CustomerBatchEntry> results = new ArrayList<>(customerIds.size());
+    long now = System.currentTimeMillis();
+
+    for (String customerId : customerIds) {
+      CustomerRequest request = new CustomerRequest(customerId, batch.startDate(), batch.endDate(), page, limit);
+      int violations = RequestPrecheck.check(request);
+      int shared = violations & ~CUSTOMER_ID_VIOLATIONS;
+      if (shared != 0) {
+        throw new RequestRejectedException(shared, RequestPrecheck.describe(shared));
+      }
+      if (violations != 0) {
+        results.add(new CustomerBatchEntry(customerId, null, new ErrorResponse(
+            RequestPrecheck.describe(violations), "ValidationException", "400", now)));
+      } else if (rateLimiter.tryAcquireCustomer(customerId) > 0) {
+        // Each ID costs what a single lookup of it would, so a batch is no way around the limit
+        results.add(new CustomerBatchEntry(customerId, null, new ErrorResponse(
+            RateLimiter.CUSTOMER_REJECTED_MESSAGE, "RateLimitExceededException", "429", now)));
+      } else {
+        valid.add(request);
+        results.add(null); // filled in once the records are fetched
+      }
+    }
+
+    requestAudit.recordAll(valid);
+
+    List<String> validIds = valid.stream().map(CustomerRequest::getCustomerId).toList();
+    Map<String, List<SuccessResponse>> records = valid.isEmpty()
+        ? Map.of()
+        : customerRepository.findRecords(validIds, CustomerQuery.from(valid.get(0)));
+
+    int next = 0;
+    for (int i = 0; i < results.size(); i++) {
+      if (results.get(i) == null) {
+        String customerId = validIds.get(next++);
+        results.set(i, new CustomerBatchEntry(customerId, records.get(customerId), null));
+      }
+    }
+    return new CustomerBatchResponse(results);
+  }
+}
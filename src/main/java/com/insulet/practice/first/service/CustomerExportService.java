@@ -0,0 +1,34 @@
+package com.insulet.practice.first.service;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.ExportProperties;
+import com.insulet.practice.first.model.SuccessResponse;
+import com.insulet.practice.first.repository.CustomerExportStream;
+import com.insulet.practice.first.repository.CustomerRepository;
+
+@Service
+public class CustomerExportService {
+
+  private final CustomerRepository customerRepository;
+  private final ExportProperties properties;
+  private final ObjectWriter recordWriter;
+
+  public CustomerExportService(CustomerRepository customerRepository, ExportProperties properties,
+      ObjectMapper objectMapper) {
+    this.customerRepository = customerRepository;
+    this.properties = properties;
+    this.recordWriter = objectMapper.writerFor(SuccessResponse.class);
+  }
+
+  public CustomerExportStream open(CustomerRequest request, boolean jsonArray) throws SQLException {
+    return customerRepository.openExport(CustomerQuery.from(request), properties.getFetchSize(),
+        properties.getMaxDuration(), recordWriter, jsonArray);
+  }
+}
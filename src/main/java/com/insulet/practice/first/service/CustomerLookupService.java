@@ -0,0 +1,127 @@
+package com.insulet.practice.first.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.insulet.practice.first.model.CoalescingProperties;
+import com.insulet.practice.first.model.CustomerPage;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.LookupCacheProperties;
+import com.insulet.practice.first.repository.CustomerRepository;
+import com.insulet.practice.first.repository.ReactiveCustomerRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache in front of {@link CustomerRepository}. Hit, miss, eviction and size meters
+ * are published as cache.* with cache=customer.lookup. Concurrent misses for the same query are
+ * coalesced into one database round trip, see {@link SingleFlight}.
+ *
+ * <p>In reactive execution mode {@link #lookupAsync} reads through the same cache from
+ * {@link ReactiveCustomerRepository}, sharing one in-flight query between concurrent subscribers.
+ */
+@Service
+public class CustomerLookupService {
+
+  private final CustomerRepository customerRepository;
+  private final ReactiveCustomerRepository reactiveCustomerRepository;
+  private final Cache<CustomerQuery, CustomerPage> cache;
+  private final SingleFlight<CustomerQuery, CustomerPage> singleFlight;
+  private final ConcurrentMap<CustomerQuery, Mono<CustomerPage>> asyncFlights;
+
+  public CustomerLookupService(CustomerRepository customerRepository,
+      ObjectProvider<ReactiveCustomerRepository> reactiveCustomerRepository, LookupCacheProperties properties,
+      CoalescingProperties coalescingProperties, MeterRegistry meterRegistry) {
+    this.customerRepository = customerRepository;
+    this.reactiveCustomerRepository = reactiveCustomerRepository.getIfAvailable();
+    if (properties.isEnabled()) {
+      Cache<CustomerQuery, CustomerPage> built = Caffeine.newBuilder()
+          .maximumSize(properties.getMaximumSize())
+          .expireAfterWrite(properties.getTtl())
+          .recordStats()
+          .build();
+      this.cache = CaffeineCacheMetrics.monitor(meterRegistry, built, "customer.lookup");
+    } else {
+      this.cache = null;
+    }
+    this.singleFlight = coalescingProperties.isEnabled()
+        ? new SingleFlight<>("customer.lookup", coalescingProperties.getWindow(), meterRegistry)
+        : null;
+    this.asyncFlights = coalescingProperties.isEnabled() ? new ConcurrentHashMap<>() : null;
+  }
+
+  public CustomerPage lookup(CustomerRequest request) throws InterruptedException {
+    // Keyed on the normalized query, so requests that differ only in ignored fields share a load
+    CustomerQuery query = CustomerQuery.from(request);
+    if (cache != null) {
+      // Not cache.get(key, loader): that runs the query inside a ConcurrentHashMap bin lock, which
+      // pins the carrier thread for the whole round trip when running on virtual threads
+      CustomerPage page = cache.getIfPresent(query);
+      if (page != null) {
+        return page;
+      }
+    }
+    return singleFlight != null ? singleFlight.execute(query, this::load) : load(query);
+  }
+
+  /**
+   * Non-blocking {@link #lookup}, only available in reactive execution mode. The query runs when the
+   * result is subscribed to.
+   */
+  public Mono<CustomerPage> lookupAsync(CustomerRequest request) {
+    if (reactiveCustomerRepository == null) {
+      throw new IllegalStateException("Asynchronous lookups need application.request.execution.mode=reactive");
+    }
+    CustomerQuery query = CustomerQuery.from(request);
+    if (cache != null) {
+      CustomerPage page = cache.getIfPresent(query);
+      if (page != null) {
+        return Mono.just(page);
+      }
+    }
+    if (asyncFlights == null) {
+      return loadAsync(query);
+    }
+    // Unlike SingleFlight there is no window: the flight is forgotten as soon as it completes and
+    // later callers are served by the cache
+    return Mono.defer(() -> {
+      Mono<CustomerPage> existing = asyncFlights.get(query);
+      if (existing != null) {
+        return existing;
+      }
+      AtomicReference<Mono<CustomerPage>> self = new AtomicReference<>();
+      Mono<CustomerPage> flight = loadAsync(query)
+          .doFinally(signal -> asyncFlights.remove(query, self.get()))
+          .cache();
+      self.set(flight);
+      existing = asyncFlights.putIfAbsent(query, flight);
+      return existing != null ? existing : flight;
+    });
+  }
+
+  private Mono<CustomerPage> loadAsync(CustomerQuery query) {
+    return reactiveCustomerRepository.findRecords(query)
+        .doOnNext(page -> {
+          if (cache != null) {
+            cache.put(query, page);
+          }
+        });
+  }
+
+  private CustomerPage load(CustomerQuery query) {
+    CustomerPage page = customerRepository.findRecords(query);
+    if (cache != null) {
+      cache.put(query, page);
+    }
+    return page;
+  }
+}
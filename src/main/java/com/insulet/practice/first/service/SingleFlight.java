@@ -0,0 +1,108 @@
+package com.insulet.practice.first.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs at most one load per key at a time. Callers that arrive while a load for an equal key is in
+ * flight, or within {@code window} after it finished, wait for that load and share its result
+ * instead of starting their own. Failures are never shared beyond the callers already waiting.
+ *
+ * <p>The load runs on the calling thread outside any lock and waiters park on a future, so neither
+ * side pins a carrier thread when running on virtual threads.
+ */
+public class SingleFlight<K, V> {
+
+  private static final class Flight<V> {
+    final CompletableFuture<V> result = new CompletableFuture<>();
+    final AtomicInteger callers = new AtomicInteger(1);
+  }
+
+  private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+  private final long windowNanos;
+  private final Executor windowExpiry;
+
+  private final Counter leaders;
+  private final Counter followers;
+  private final DistributionSummary fanIn;
+
+  public SingleFlight(String name, Duration window, MeterRegistry meterRegistry) {
+    this.windowNanos = window.toNanos();
+    this.windowExpiry = windowNanos > 0
+        ? CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS)
+        : null;
+
+    this.leaders = Counter.builder(name + ".coalescing.calls")
+        .description("Calls that ran the load themselves")
+        .tag("role", "leader")
+        .register(meterRegistry);
+    this.followers = Counter.builder(name + ".coalescing.calls")
+        .description("Calls served by a load another caller ran")
+        .tag("role", "follower")
+        .register(meterRegistry);
+    this.fanIn = DistributionSummary.builder(name + ".coalescing.fanin")
+        .description("Callers served per load")
+        .register(meterRegistry);
+  }
+
+  public V execute(K key, Function<K, V> loader) throws InterruptedException {
+    Flight<V> flight = new Flight<>();
+    Flight<V> existing = flights.putIfAbsent(key, flight);
+    if (existing != null) {
+      existing.callers.incrementAndGet();
+      followers.increment();
+      return await(existing);
+    }
+
+    leaders.increment();
+    try {
+      V value = loader.apply(key);
+      flight.result.complete(value);
+      if (windowExpiry != null) {
+        windowExpiry.execute(() -> land(key, flight));
+      } else {
+        land(key, flight);
+      }
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.result.completeExceptionally(e);
+      land(key, flight);
+      throw e;
+    }
+  }
+
+  int inFlight() {
+    return flights.size();
+  }
+
+  private void land(K key, Flight<V> flight) {
+    if (flights.remove(key, flight)) {
+      fanIn.record(flight.callers.get());
+    }
+  }
+
+  private static <V> V await(Flight<V> flight) throws InterruptedException {
+    try {
+      return flight.result.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
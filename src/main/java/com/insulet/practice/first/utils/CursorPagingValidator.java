@@ -0,0 +1,64 @@
+package com.insulet.practice.first.utils;
+
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.PageCursor;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class CursorPagingValidator implements ConstraintValidator<ValidCursorPaging, CustomerRequest> {
+
+  public static final String PAGE_CONFLICT_MESSAGE = "page cannot be combined with cursor";
+  public static final String UNDECODABLE_MESSAGE = "Invalid cursor. Use the value returned in X-Next-Cursor";
+
+  @Override
+  public void initialize(ValidCursorPaging constraintAnnotation) {
+    // No initialization needed
+  }
+
+  @Override
+  public boolean isValid(CustomerRequest request, ConstraintValidatorContext context) {
+    if (request == null || request.getCursor() == null || request.getCursor().isEmpty()) {
+      return true; // offset paging, nothing to check
+    }
+
+    if (request.getPageOrZero() > 0) {
+      context.disableDefaultConstraintViolation();
+      context
+          .buildConstraintViolationWithTemplate(PAGE_CONFLICT_MESSAGE)
+          .addPropertyNode("page")
+          .addConstraintViolation();
+      return false;
+    }
+
+    // Length and alphabet are reported by the field constraints, only check that the value decodes
+    if (isWellFormed(request.getCursor()) && PageCursor.decode(request.getCursor()) == null) {
+      context.disableDefaultConstraintViolation();
+      context
+          .buildConstraintViolationWithTemplate(UNDECODABLE_MESSAGE)
+          .addPropertyNode("cursor")
+          .addConstraintViolation();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * True when the cursor passes the field constraints on CustomerRequest.cursor (length and alphabet).
+   */
+  public static boolean isWellFormed(String cursor) {
+    return cursor.length() <= CustomerRequestConstraints.CURSOR_MAX_LENGTH && isBase64Url(cursor);
+  }
+
+  public static boolean isBase64Url(String cursor) {
+    for (int i = 0; i < cursor.length(); i++) {
+      char c = cursor.charAt(i);
+      boolean base64Url = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+          || c == '-' || c == '_';
+      if (!base64Url) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,71 @@
+package com.insulet.practice.first.utils;
+
+import java.lang.annotation.Annotation;
+
+import com.insulet.practice.first.model.CustomerRequest;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Bounds and messages of the property constraints declared on {@link CustomerRequest}, read from
+ * the annotations once when the class loads. The compiled checks in RequestPrecheck use these instead
+ * of copies, so the annotations stay the single definition of what a valid request is.
+ *
+ * <p>Messages must be literal text: message templates are interpolated by Hibernate Validator only,
+ * the compiled checks would report the raw template.
+ */
+public final class CustomerRequestConstraints {
+
+  public static final String CUSTOMER_ID_EMPTY_MESSAGE = message(field("customerId", NotEmpty.class).message());
+
+  public static final String START_DATE_FORMAT_MESSAGE = message(field("startDate", IsoTimestamp.class).message());
+  public static final String END_DATE_FORMAT_MESSAGE = message(field("endDate", IsoTimestamp.class).message());
+
+  public static final long PAGE_MIN = field("page", Min.class).value();
+  public static final String PAGE_MIN_MESSAGE = message(field("page", Min.class).message());
+
+  public static final long LIMIT_MIN = field("limit", Min.class).value();
+  public static final String LIMIT_MIN_MESSAGE = message(field("limit", Min.class).message());
+  public static final long LIMIT_MAX = field("limit", Max.class).value();
+  public static final String LIMIT_MAX_MESSAGE = message(field("limit", Max.class).message());
+
+  public static final int CURSOR_MAX_LENGTH = field("cursor", Size.class).max();
+  public static final String CURSOR_SIZE_MESSAGE = message(field("cursor", Size.class).message());
+  // Checked by CursorPagingValidator.isBase64Url rather than a regex, the parity tests keep the two equal
+  public static final String CURSOR_PATTERN = field("cursor", Pattern.class).regexp();
+  public static final String CURSOR_PATTERN_MESSAGE = message(field("cursor", Pattern.class).message());
+
+  private CustomerRequestConstraints() {
+  }
+
+  // Looks at the field and then its getter, page and limit are constrained on the getter
+  private static <A extends Annotation> A field(String name, Class<A> type) {
+    A annotation;
+    try {
+      annotation = CustomerRequest.class.getDeclaredField(name).getAnnotation(type);
+      if (annotation == null) {
+        String getter = "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        annotation = CustomerRequest.class.getMethod(getter).getAnnotation(type);
+      }
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException("CustomerRequest has no field " + name, e);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("CustomerRequest has no getter for " + name, e);
+    }
+    if (annotation == null) {
+      throw new IllegalStateException("CustomerRequest." + name + " is not annotated with @" + type.getSimpleName());
+    }
+    return annotation;
+  }
+
+  private static String message(String message) {
+    if (message.indexOf('{') >= 0 || message.indexOf('$') >= 0) {
+      throw new IllegalStateException("CustomerRequest constraint message '" + message + "' is a template");
+    }
+    return message;
+  }
+}
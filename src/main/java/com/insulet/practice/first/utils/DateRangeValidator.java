@@ -1,9 +1,5 @@
 package com.insulet.practice.first.utils;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-
 import com.insulet.practice.first.model.CustomerRequest;
 
 import jakarta.validation.ConstraintValidator;
@@ -11,6 +7,8 @@ import jakarta.validation.ConstraintValidatorContext;
 
 public class DateRangeValidator implements ConstraintValidator<ValidDateRange, CustomerRequest> {
 
+  public static final String MESSAGE = "startDate cannot be after endDate";
+
   @Override
   public void initialize(ValidDateRange constraintAnnotation) {
     // No initialization needed
@@ -22,32 +20,22 @@ public class DateRangeValidator implements ConstraintValidator<ValidDateRange, C
       return true; // null objects are valid, use @NotNull for null checks
     }
 
-    String startDate = request.getStartDate();
-    String endDate = request.getEndDate();
+    long start = request.getStartEpochMillis();
+    long end = request.getEndEpochMillis();
 
-    // If either date is null or empty, skip the range validation
-    if (startDate == null
-        || startDate.isEmpty()
-        || endDate == null
-        || endDate.isEmpty()) {
+    // If either date is missing or malformed, skip the range validation.
+    // Date format validation is handled by @IsoTimestamp annotations
+    if (start == IsoTimestamps.INVALID || end == IsoTimestamps.INVALID) {
       return true;
     }
 
-    try {
-      LocalDateTime start = LocalDateTime.parse(startDate, DateTimeFormatter.ISO_DATE_TIME);
-      LocalDateTime end = LocalDateTime.parse(endDate, DateTimeFormatter.ISO_DATE_TIME);
-
-      if (start.isAfter(end)) {
-        context.disableDefaultConstraintViolation();
-        context
-            .buildConstraintViolationWithTemplate("startDate cannot be after endDate")
-            .addPropertyNode("startDate")
-            .addConstraintViolation();
-        return false;
-      }
-    } catch (DateTimeParseException e) {
-      // Date format validation is handled by @Pattern annotations
-      return true;
+    if (start > end) {
+      context.disableDefaultConstraintViolation();
+      context
+          .buildConstraintViolationWithTemplate(MESSAGE)
+          .addPropertyNode("startDate")
+          .addConstraintViolation();
+      return false;
     }
     return true;
   }
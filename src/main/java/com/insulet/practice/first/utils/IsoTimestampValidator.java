@@ -0,0 +1,20 @@
+package com.insulet.practice.first.utils;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class IsoTimestampValidator implements ConstraintValidator<IsoTimestamp, CharSequence> {
+
+  @Override
+  public void initialize(IsoTimestamp constraintAnnotation) {
+    // No initialization needed
+  }
+
+  @Override
+  public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+    if (value == null) {
+      return true; // optional, use @NotNull for null checks
+    }
+    return IsoTimestamps.isValid(value);
+  }
+}
@@ -0,0 +1,90 @@
+package com.insulet.practice.first.utils;
+
+/**
+ * Fixed-width parser for the API's {@code YYYY-MM-DDThh:mm:ss.mmmZ} timestamps. Checks the
+ * layout and the calendar in a single pass over the characters and never allocates, so it can
+ * run on every request in place of a regex match followed by a java.time parse.
+ */
+public final class IsoTimestamps {
+
+  public static final long INVALID = Long.MIN_VALUE;
+
+  private static final int LENGTH = 24;
+
+  private IsoTimestamps() {
+  }
+
+  /**
+   * Returns the epoch milliseconds of {@code value}, or {@link #INVALID} if it is null, not in
+   * the expected layout or not a real calendar date.
+   */
+  public static long parse(CharSequence value) {
+    if (value == null || value.length() != LENGTH) {
+      return INVALID;
+    }
+    if (value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+        || value.charAt(13) != ':' || value.charAt(16) != ':' || value.charAt(19) != '.'
+        || value.charAt(23) != 'Z') {
+      return INVALID;
+    }
+
+    int year = digits(value, 0, 4);
+    int month = digits(value, 5, 2);
+    int day = digits(value, 8, 2);
+    int hour = digits(value, 11, 2);
+    int minute = digits(value, 14, 2);
+    int second = digits(value, 17, 2);
+    int millis = digits(value, 20, 3);
+    if ((year | month | day | hour | minute | second | millis) < 0) {
+      return INVALID;
+    }
+    if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+        || hour > 23 || minute > 59 || second > 59) {
+      return INVALID;
+    }
+
+    long days = daysFromCivil(year, month, day);
+    return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000 + millis;
+  }
+
+  public static boolean isValid(CharSequence value) {
+    return parse(value) != INVALID;
+  }
+
+  private static int digits(CharSequence value, int from, int count) {
+    int result = 0;
+    for (int i = from; i < from + count; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  // Days since 1970-01-01 for a proleptic Gregorian date (H. Hinnant's days_from_civil)
+  private static long daysFromCivil(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (long) era * 146097 + dayOfEra - 719468;
+  }
+}
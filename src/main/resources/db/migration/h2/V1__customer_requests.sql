@@ -0,0 +1,15 @@
+-- H2 has no declarative partitioning, tests and local runs use a single table with the same
+-- columns and index as the partitioned Postgres table
+CREATE TABLE customer_requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    customer_id VARCHAR(255) NOT NULL,
+    start_date VARCHAR(50),
+    end_date VARCHAR(50),
+    page INTEGER,
+    rec_limit INTEGER,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+);
+
+CREATE INDEX idx_customer_requests_customer_start
+    ON customer_requests (customer_id, start_date);
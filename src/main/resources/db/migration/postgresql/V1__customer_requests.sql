@@ -0,0 +1,30 @@
+-- Request log written by the customer routes, one row per validated request.
+-- Range-partitioned by day on created_at; CustomerRequestPartitions creates upcoming partitions and
+-- detaches or drops expired ones, so retention never deletes row by row.
+
+-- Tables created before this migration existed are kept, renamed, for archiving
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+             WHERE c.relname = 'customer_requests' AND n.nspname = current_schema() AND c.relkind = 'r') THEN
+    ALTER TABLE customer_requests RENAME TO customer_requests_legacy;
+  END IF;
+END $$;
+
+CREATE TABLE customer_requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    customer_id VARCHAR(255) NOT NULL,
+    start_date VARCHAR(50),
+    end_date VARCHAR(50),
+    page INTEGER,
+    rec_limit INTEGER,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows for days whose partition does not exist yet
+CREATE TABLE customer_requests_default PARTITION OF customer_requests DEFAULT;
+
+-- Covers lookups by customer and requested range without touching the heap
+CREATE INDEX idx_customer_requests_customer_start
+    ON customer_requests (customer_id, start_date) INCLUDE (end_date, page, rec_limit);
@@ -0,0 +1,13 @@
+-- Customer history served by the read path. IF NOT EXISTS because the table predates the migrations.
+CREATE TABLE IF NOT EXISTS customer_records (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    address VARCHAR(500),
+    salary DECIMAL(12, 2),
+    dob TIMESTAMP,
+    recorded_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_customer_records_customer_recorded
+    ON customer_records (customer_id, recorded_at DESC, id DESC);
@@ -0,0 +1,237 @@
+package com.insulet.practice.first.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.insulet.practice.first.model.CustomerRequest;
+
+class AuditSpoolTest {
+
+  private static final int SEGMENT_SIZE = 4096;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void read_shouldReturnEntriesInAppendOrderAcrossSegments() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      assertTrue(spool.isEmpty());
+      CustomerRequest first = new CustomerRequest("CUST-0", "2024-01-01T00:00:00Z", null, 2, null);
+      assertTrue(spool.append(new AuditSpool.Entry(first, 1234L)));
+      for (int i = 1; i < 200; i++) {
+        assertTrue(spool.append(entry(i)));
+      }
+      assertFalse(spool.isEmpty());
+      assertTrue(segmentFiles().size() > 1);
+
+      List<AuditSpool.Entry> entries = readAll(spool);
+      assertEquals(200, entries.size());
+      AuditSpool.Entry head = entries.get(0);
+      assertEquals(1234L, head.recordedAtMillis());
+      assertEquals("CUST-0", head.request().getCustomerId());
+      assertEquals("2024-01-01T00:00:00Z", head.request().getStartDate());
+      assertNull(head.request().getEndDate());
+      assertEquals(2, head.request().getPage());
+      assertNull(head.request().getLimit());
+      assertSequence(entries.subList(1, 200), 1, 199);
+
+      assertTrue(spool.isEmpty());
+      assertEquals(1, segmentFiles().size());
+    }
+  }
+
+  @Test
+  void reopen_shouldResumeAfterTheAcknowledgedPosition() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      for (int i = 0; i < 100; i++) {
+        spool.append(entry(i));
+      }
+      spool.acknowledge(spool.read(30));
+    }
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      assertFalse(spool.isEmpty());
+      spool.append(entry(100));
+      assertSequence(readAll(spool), 30, 71);
+    }
+  }
+
+  @Test
+  void reopen_afterEverythingWasAcknowledged_shouldBeEmpty() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      for (int i = 0; i < 100; i++) {
+        spool.append(entry(i));
+      }
+      readAll(spool);
+    }
+    for (int restart = 0; restart < 3; restart++) {
+      try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+        assertTrue(spool.isEmpty());
+        assertEquals(0, spool.pendingBytes());
+        // Only the new write segment, the acknowledged ones are gone
+        assertEquals(1, segmentFiles().size());
+      }
+    }
+  }
+
+  @Test
+  void open_whileAnotherSpoolHoldsTheDirectory_shouldFail() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      spool.append(entry(0));
+
+      assertThrows(IOException.class, () -> new AuditSpool(directory, SEGMENT_SIZE, 1 << 20));
+    }
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      assertSequence(readAll(spool), 0, 1);
+    }
+  }
+
+  @Test
+  void reopen_withCorruptRecord_shouldStopTheSegmentThereAndKeepLaterAppends() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      for (int i = 0; i < 10; i++) {
+        spool.append(entry(i));
+      }
+    }
+    Path segment = segmentFiles().get(0);
+    int recordBytes = AuditSpool.HEADER_BYTES + AuditSpool.encode(entry(0)).length;
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // Flip a payload byte of the eighth record, as if the write was cut off after its length
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 7L * recordBytes + AuditSpool.HEADER_BYTES + 3);
+    }
+
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20)) {
+      spool.append(entry(10));
+      spool.append(entry(11));
+      List<AuditSpool.Entry> entries = readAll(spool);
+      assertEquals(9, entries.size());
+      assertSequence(entries.subList(0, 7), 0, 7);
+      assertSequence(entries.subList(7, 9), 10, 2);
+    }
+  }
+
+  @Test
+  void append_whenMaxSizeReached_shouldReturnFalse() throws Exception {
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE)) {
+      int appended = 0;
+      while (spool.append(entry(appended))) {
+        appended++;
+      }
+      assertTrue(appended > SEGMENT_SIZE / (AuditSpool.HEADER_BYTES + AuditSpool.encode(entry(0)).length));
+
+      spool.acknowledge(spool.read(appended));
+      assertTrue(spool.append(entry(appended)));
+    }
+  }
+
+  @Test
+  void killedWhileAppending_shouldKeepAContiguousPrefixOfTheAppends() throws Exception {
+    for (int run = 0; run < 3; run++) {
+      Process writer = new ProcessBuilder(
+          Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+          "-cp", System.getProperty("java.class.path"),
+          CrashingWriter.class.getName(), directory.toString())
+          .redirectError(ProcessBuilder.Redirect.INHERIT)
+          .start();
+      try (BufferedReader output = new BufferedReader(
+          new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+        assertEquals("appending", output.readLine());
+        // Let it append for a while, the kill lands at an arbitrary point of a record or segment switch
+        Thread.sleep(200 + ThreadLocalRandom.current().nextInt(300));
+      } finally {
+        writer.destroyForcibly();
+        assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+      }
+    }
+
+    try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, Long.MAX_VALUE)) {
+      List<AuditSpool.Entry> entries = readAll(spool);
+      assertTrue(entries.size() > 1000, "only " + entries.size() + " records survived");
+      // Each run restarts its numbering, so the log is three ascending runs from 0 with no gaps
+      int runs = 0;
+      int expected = 0;
+      for (AuditSpool.Entry entry : entries) {
+        int sequence = Integer.parseInt(entry.request().getCustomerId().substring("CUST-".length()));
+        if (sequence == 0) {
+          runs++;
+          expected = 0;
+        }
+        assertEquals(expected++, sequence);
+      }
+      assertEquals(3, runs);
+    }
+  }
+
+  /**
+   * Appends CUST-0, CUST-1, ... to the spool in args[0] until it is killed.
+   */
+  public static final class CrashingWriter {
+
+    public static void main(String[] args) throws Exception {
+      try (AuditSpool spool = new AuditSpool(Path.of(args[0]), SEGMENT_SIZE, Long.MAX_VALUE)) {
+        for (int i = 0;; i++) {
+          spool.append(entry(i));
+          if (i % 8 == 0) {
+            // Keeps a run at a few MB of segments
+            LockSupport.parkNanos(1000);
+          }
+          if (i == 2000) {
+            System.out.println("appending");
+            System.out.flush();
+          }
+        }
+      }
+    }
+  }
+
+  private static AuditSpool.Entry entry(int sequence) {
+    return new AuditSpool.Entry(
+        new CustomerRequest("CUST-" + sequence, "2024-01-01T00:00:00Z", "2024-01-31T23:59:59Z", null, 10),
+        1_700_000_000_000L + sequence);
+  }
+
+  private static List<AuditSpool.Entry> readAll(AuditSpool spool) throws Exception {
+    List<AuditSpool.Entry> entries = new ArrayList<>();
+    while (!spool.isEmpty()) {
+      AuditSpool.Batch batch = spool.read(64);
+      entries.addAll(batch.entries());
+      spool.acknowledge(batch);
+    }
+    return entries;
+  }
+
+  private static void assertSequence(List<AuditSpool.Entry> entries, int from, int count) {
+    assertEquals(count, entries.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals("CUST-" + (from + i), entries.get(i).request().getCustomerId());
+      assertEquals(1_700_000_000_000L + from + i, entries.get(i).recordedAtMillis());
+    }
+  }
+
+  private List<Path> segmentFiles() throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.insulet.practice.first.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.CustomerRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditSpoolerTest {
+
+  @TempDir
+  Path directory;
+
+  private EmbeddedDatabase database;
+  private FlakyJdbcTemplate jdbcTemplate;
+  private AuditProperties properties;
+  private SimpleMeterRegistry registry;
+  private AuditSpooler spooler;
+
+  @BeforeEach
+  void setUp() {
+    database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .addScript("db/migration/h2/V1__customer_requests.sql")
+        .build();
+    jdbcTemplate = new FlakyJdbcTemplate(database);
+    properties = new AuditProperties();
+    properties.getSpool().setEnabled(true);
+    properties.getSpool().setDirectory(directory.toString());
+    // Replay is driven by the test through replayBatch()
+    properties.getSpool().setReplayInterval(Duration.ofHours(1));
+    registry = new SimpleMeterRegistry();
+    spooler = new AuditSpooler(jdbcTemplate, properties, registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    spooler.stop();
+    database.shutdown();
+  }
+
+  @Test
+  void record_whileDatabaseUnavailable_shouldSpoolAndReplayInOrderWithOriginalTimestamps() throws Exception {
+    jdbcTemplate.unavailable = true;
+    spooler.start();
+    spooler.record(request("CUST-1"));
+    Thread.sleep(20);
+    spooler.recordAll(List.of(request("CUST-2"), request("CUST-3")));
+    assertTrue(spooler.spilling());
+
+    // Back up, but the spool still holds older requests, so this one queues behind them
+    jdbcTemplate.unavailable = false;
+    spooler.record(request("CUST-4"));
+    assertEquals(0, count());
+    assertEquals(4.0, registry.get("customer.audit.spool.spooled").counter().count());
+
+    assertEquals(4, spooler.replayBatch());
+    assertFalse(spooler.spilling());
+    assertEquals(List.of("CUST-1", "CUST-2", "CUST-3", "CUST-4"),
+        jdbcTemplate.queryForList("SELECT customer_id FROM customer_requests ORDER BY id", String.class));
+    List<Timestamp> createdAt = jdbcTemplate.queryForList(
+        "SELECT created_at FROM customer_requests ORDER BY id", Timestamp.class);
+    assertTrue(createdAt.get(1).getTime() - createdAt.get(0).getTime() >= 20);
+    assertEquals(4.0, registry.get("customer.audit.spool.replayed").counter().count());
+
+    spooler.record(request("CUST-5"));
+    assertEquals(5, count());
+  }
+
+  @Test
+  void replayBatch_whileStillUnavailable_shouldKeepTheSpool() {
+    jdbcTemplate.unavailable = true;
+    spooler.start();
+    spooler.record(request("CUST-1"));
+
+    assertEquals(-1, spooler.replayBatch());
+    assertTrue(spooler.spilling());
+
+    jdbcTemplate.unavailable = false;
+    assertEquals(1, spooler.replayBatch());
+    assertEquals(1, count());
+  }
+
+  @Test
+  void record_whenDatabaseRejectsTheRow_shouldRethrowInsteadOfSpooling() {
+    spooler.start();
+    CustomerRequest tooLong = request("C".repeat(500));
+
+    assertThrows(DataIntegrityViolationException.class, () -> spooler.record(tooLong));
+    assertFalse(spooler.spilling());
+  }
+
+  @Test
+  void record_withSpoolDisabled_shouldPassUnavailableErrorsThrough() {
+    properties.getSpool().setEnabled(false);
+    spooler.start();
+    jdbcTemplate.unavailable = true;
+
+    assertThrows(CannotGetJdbcConnectionException.class, () -> spooler.record(request("CUST-1")));
+  }
+
+  private int count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_requests", Integer.class);
+  }
+
+  private static CustomerRequest request(String customerId) {
+    return new CustomerRequest(customerId, "2024-01-01T00:00:00Z", "2024-01-31T23:59:59Z", 1, 10);
+  }
+
+  // Fails inserts the way JdbcTemplate does when no connection can be obtained
+  private static final class FlakyJdbcTemplate extends JdbcTemplate {
+
+    volatile boolean unavailable;
+
+    FlakyJdbcTemplate(EmbeddedDatabase database) {
+      super(database);
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+      check();
+      return super.batchUpdate(sql, pss);
+    }
+
+    @Override
+    public int update(String sql, PreparedStatementSetter pss) {
+      check();
+      return super.update(sql, pss);
+    }
+
+    private void check() {
+      if (unavailable) {
+        throw new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+            new SQLException("Connection is not available, request timed out after 500ms."));
+      }
+    }
+  }
+}
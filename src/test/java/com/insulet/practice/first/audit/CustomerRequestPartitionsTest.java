@@ -0,0 +1,50 @@
+package com.insulet.practice.first.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CustomerRequestPartitionsTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 3, 31);
+
+  @Test
+  void partitionName_shouldUseBasicIsoDate() {
+    assertEquals("customer_requests_p20240301", CustomerRequestPartitions.partitionName(LocalDate.of(2024, 3, 1)));
+    assertEquals(LocalDate.of(2024, 3, 1), CustomerRequestPartitions.dayOf("customer_requests_p20240301"));
+  }
+
+  @Test
+  void dayOf_withForeignTables_shouldReturnNull() {
+    assertNull(CustomerRequestPartitions.dayOf("customer_requests_default"));
+    assertNull(CustomerRequestPartitions.dayOf("customer_requests_p2024030"));
+    assertNull(CustomerRequestPartitions.dayOf("customer_requests_p20241301"));
+    assertNull(CustomerRequestPartitions.dayOf("customer_requests_legacy"));
+  }
+
+  @Test
+  void expired_shouldReturnOnlyDaysFullyOutsideRetention() {
+    List<String> partitions = List.of(
+        "customer_requests_default",
+        "customer_requests_p20240320",
+        "customer_requests_p20240321",
+        "customer_requests_p20240322",
+        "customer_requests_p20240331",
+        "customer_requests_p20240401");
+
+    // Retaining 10 days keeps everything from 2024-03-21 00:00 onwards
+    assertEquals(List.of("customer_requests_p20240320"),
+        CustomerRequestPartitions.expired(partitions, TODAY, 10));
+  }
+
+  @Test
+  void expired_withZeroRetention_shouldKeepToday() {
+    List<String> partitions = List.of("customer_requests_p20240330", "customer_requests_p20240331");
+
+    assertEquals(List.of("customer_requests_p20240330"), CustomerRequestPartitions.expired(partitions, TODAY, 0));
+  }
+}
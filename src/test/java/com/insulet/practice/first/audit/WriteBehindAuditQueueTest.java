@@ -0,0 +1,124 @@
+package com.insulet.practice.first.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.insulet.practice.first.model.AuditProperties;
+import com.insulet.practice.first.model.CustomerRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindAuditQueueTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private AuditProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .addScript("db/migration/h2/V1__customer_requests.sql")
+        .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    properties = new AuditProperties();
+    properties.setMode(AuditProperties.Mode.WRITE_BEHIND);
+    properties.setBatchSize(10);
+    properties.setFlushInterval(Duration.ofMillis(20));
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void stop_shouldDrainAllQueuedRequestsInBatches() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    WriteBehindAuditQueue queue = new WriteBehindAuditQueue(jdbcTemplate, properties,
+        new AuditSpooler(jdbcTemplate, properties, registry), registry);
+    queue.start();
+
+    for (int i = 0; i < 25; i++) {
+      assertTrue(queue.enqueue(request("CUST" + i)));
+    }
+    queue.stop();
+
+    assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_requests", Integer.class));
+    assertEquals(0, queue.depth());
+    assertTrue(registry.get("customer.audit.batch.size").summary().count() >= 3);
+  }
+
+  @Test
+  void enqueue_withRejectPolicyAndFullQueue_shouldRejectImmediately() throws Exception {
+    properties.setQueueCapacity(1);
+    properties.setBatchSize(1);
+    properties.setOverflowPolicy(AuditProperties.OverflowPolicy.REJECT);
+    CountDownLatch flushing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    JdbcTemplate slowTemplate = new JdbcTemplate(database) {
+      @Override
+      public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+        flushing.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.batchUpdate(sql, pss);
+      }
+    };
+    WriteBehindAuditQueue queue = new WriteBehindAuditQueue(slowTemplate, properties,
+        new AuditSpooler(slowTemplate, properties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+    queue.start();
+
+    // First request is held by the flusher, second fills the queue, third has nowhere to go
+    assertTrue(queue.enqueue(request("CUST1")));
+    assertTrue(flushing.await(5, TimeUnit.SECONDS));
+    assertTrue(queue.enqueue(request("CUST2")));
+    assertFalse(queue.enqueue(request("CUST3")));
+
+    release.countDown();
+    queue.stop();
+    assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_requests", Integer.class));
+  }
+
+  @Test
+  void enqueue_whenStopped_shouldReject() throws Exception {
+    WriteBehindAuditQueue queue = new WriteBehindAuditQueue(jdbcTemplate, properties,
+        new AuditSpooler(jdbcTemplate, properties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+    assertFalse(queue.enqueue(request("CUST1")));
+  }
+
+  @Test
+  void start_inSyncMode_shouldNotStartTheFlusher() throws Exception {
+    properties.setMode(AuditProperties.Mode.SYNC);
+    WriteBehindAuditQueue queue = new WriteBehindAuditQueue(jdbcTemplate, properties,
+        new AuditSpooler(jdbcTemplate, properties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+    queue.start();
+
+    assertFalse(queue.isRunning());
+    assertFalse(queue.enqueue(request("CUST1")));
+  }
+
+  private static CustomerRequest request(String customerId) {
+    return new CustomerRequest(customerId, "2024-01-01T00:00:00.000Z", "2024-12-31T23:59:59.999Z", 0, 100);
+  }
+}
@@ -0,0 +1,72 @@
+package com.insulet.practice.first.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+class ConnectionPoolConfigTest {
+
+  private final ConnectionPoolProperties pool = new ConnectionPoolProperties();
+  private final ExecutionProperties execution = new ExecutionProperties();
+  private final HikariDataSource dataSource = new HikariDataSource();
+
+  @AfterEach
+  void tearDown() {
+    dataSource.close();
+  }
+
+  @Test
+  void poolSize_shouldPreferExplicitThenConcurrencyThenConfigured() {
+    assertEquals(10, ConnectionPoolConfig.poolSize(pool, execution, 10));
+
+    execution.setMaxConcurrent(40);
+    assertEquals(42, ConnectionPoolConfig.poolSize(pool, execution, 10));
+
+    pool.setMaximumPoolSize(16);
+    assertEquals(16, ConnectionPoolConfig.poolSize(pool, execution, 10));
+  }
+
+  @Test
+  void customize_withPostgresUrl_shouldEnableStatementCaching() {
+    dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/mydb");
+    execution.setMaxConcurrent(20);
+
+    ConnectionPoolConfig.customize(dataSource, pool, execution);
+
+    assertEquals(22, dataSource.getMaximumPoolSize());
+    assertEquals(500, dataSource.getConnectionTimeout());
+    assertEquals(660_000, dataSource.getLeakDetectionThreshold());
+    assertEquals(1, dataSource.getDataSourceProperties().get("prepareThreshold"));
+    assertEquals(256, dataSource.getDataSourceProperties().get("preparedStatementCacheQueries"));
+    assertEquals(5L, dataSource.getDataSourceProperties().get("preparedStatementCacheSizeMiB"));
+  }
+
+  @Test
+  void customize_withOtherDatabase_shouldLeaveDriverPropertiesAlone() {
+    dataSource.setJdbcUrl("jdbc:h2:mem:pool");
+
+    ConnectionPoolConfig.customize(dataSource, pool, execution);
+
+    assertNull(dataSource.getDataSourceProperties().get("prepareThreshold"));
+  }
+
+  @Test
+  void queryTimeoutSeconds_shouldRoundUpAndTreatZeroAsNone() {
+    pool.setQueryTimeout(Duration.ofMillis(200));
+    assertEquals(1, ConnectionPoolConfig.queryTimeoutSeconds(pool));
+
+    pool.setQueryTimeout(Duration.ofMillis(5_500));
+    assertEquals(6, ConnectionPoolConfig.queryTimeoutSeconds(pool));
+
+    pool.setQueryTimeout(Duration.ZERO);
+    assertEquals(-1, ConnectionPoolConfig.queryTimeoutSeconds(pool));
+  }
+}
@@ -0,0 +1,32 @@
+package com.insulet.practice.first.logging;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StackTraceRateLimiterTest {
+
+  private static final long INTERVAL = 1_000_000_000L;
+
+  @Test
+  void tryAcquire_shouldAllowOneStackTracePerTypePerInterval() {
+    StackTraceRateLimiter limiter = new StackTraceRateLimiter(INTERVAL);
+    long now = 5_000_000_000L;
+
+    assertTrue(limiter.tryAcquire(IllegalStateException.class, now));
+    assertFalse(limiter.tryAcquire(IllegalStateException.class, now + 1));
+    assertFalse(limiter.tryAcquire(IllegalStateException.class, now + INTERVAL - 1));
+    assertTrue(limiter.tryAcquire(IllegalStateException.class, now + INTERVAL));
+  }
+
+  @Test
+  void tryAcquire_shouldTrackExceptionTypesIndependently() {
+    StackTraceRateLimiter limiter = new StackTraceRateLimiter(INTERVAL);
+    long now = 5_000_000_000L;
+
+    assertTrue(limiter.tryAcquire(IllegalStateException.class, now));
+    assertTrue(limiter.tryAcquire(IllegalArgumentException.class, now));
+    assertFalse(limiter.tryAcquire(IllegalArgumentException.class, now + 1));
+  }
+}
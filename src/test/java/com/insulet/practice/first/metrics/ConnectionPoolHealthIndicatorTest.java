@@ -0,0 +1,75 @@
+package com.insulet.practice.first.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+class ConnectionPoolHealthIndicatorTest {
+
+  private HikariDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:mem:pool-health;DB_CLOSE_DELAY=-1");
+    dataSource.setMaximumPoolSize(2);
+    dataSource.setMinimumIdle(2);
+    dataSource.getConnection().close(); // starts the pool
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.close();
+  }
+
+  @Test
+  void health_withIdlePool_shouldBeUp() {
+    Health health = indicator().health();
+
+    assertEquals(Status.UP, health.getStatus());
+    assertEquals(0, health.getDetails().get("active"));
+    assertEquals(2, health.getDetails().get("maximum"));
+  }
+
+  @Test
+  void health_withAllConnectionsBusy_shouldBeSaturated() throws Exception {
+    try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+      Health health = indicator().health();
+
+      assertEquals(ConnectionPoolHealthIndicator.SATURATED, health.getStatus());
+      assertEquals(2, health.getDetails().get("active"));
+      assertEquals(1.0, health.getDetails().get("utilization"));
+    }
+  }
+
+  @Test
+  void health_withoutHikari_shouldBeUnknown() {
+    EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    try {
+      Health health = new ConnectionPoolHealthIndicator(database, new ConnectionPoolProperties()).health();
+
+      assertEquals(Status.UNKNOWN, health.getStatus());
+    } finally {
+      database.shutdown();
+    }
+  }
+
+  private ConnectionPoolHealthIndicator indicator() {
+    return new ConnectionPoolHealthIndicator(dataSource, new ConnectionPoolProperties());
+  }
+}
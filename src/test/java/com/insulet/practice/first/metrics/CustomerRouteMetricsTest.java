@@ -0,0 +1,116 @@
+package com.insulet.practice.first.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.metrics.CustomerRouteMetrics.Stage;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CustomerRouteMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CustomerRouteMetrics metrics = new CustomerRouteMetrics(registry);
+  private final CamelContext camelContext = new DefaultCamelContext();
+  private ProducerTemplate template;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    camelContext.addRoutes(new RouteBuilder() {
+      @Override
+      public void configure() {
+        from("direct:allStages")
+            .process(metrics.begin())
+            .process(metrics.mark(Stage.ADMISSION))
+            .process(metrics.mark(Stage.CONVERSION))
+            .process(metrics.mark(Stage.VALIDATION))
+            .process(metrics.mark(Stage.AUDIT))
+            .process(metrics.mark(Stage.LOOKUP))
+            .process(metrics.mark(Stage.SERIALIZATION));
+        from("direct:failingConversion")
+            .process(metrics.begin())
+            .process(metrics.mark(Stage.ADMISSION))
+            .process(exchange -> {
+              Thread.sleep(20);
+              throw new IllegalStateException("boom");
+            })
+            .process(metrics.mark(Stage.CONVERSION))
+            .process(metrics.mark(Stage.VALIDATION));
+      }
+    });
+    camelContext.start();
+    template = camelContext.createProducerTemplate();
+  }
+
+  @AfterEach
+  void tearDown() {
+    camelContext.stop();
+  }
+
+  @Test
+  void begin_withEveryStageMarked_shouldRecordEachStageOnce() {
+    template.send("direct:allStages", exchange -> { });
+
+    for (Stage stage : Stage.values()) {
+      assertEquals(1, stage(stage, "success").count(), stage.name());
+    }
+    assertEquals(1, total("success").count());
+  }
+
+  @Test
+  void begin_shouldClassifyTheOutcomeByResponseCode() {
+    send(429);
+    send(503);
+    send(400);
+    send(404);
+    send(500);
+    send(200);
+
+    assertEquals(2, total("rejected").count());
+    assertEquals(2, total("validation_error").count());
+    assertEquals(1, total("server_error").count());
+    assertEquals(1, total("success").count());
+  }
+
+  @Test
+  void begin_whenAStageFails_shouldChargeTheRemainingTimeToIt() {
+    template.send("direct:failingConversion", exchange -> { });
+
+    assertEquals(1, stage(Stage.ADMISSION, "server_error").count());
+    Timer conversion = stage(Stage.CONVERSION, "server_error");
+    assertEquals(1, conversion.count());
+    assertTrue(conversion.totalTime(TimeUnit.MILLISECONDS) >= 20);
+    // Stages after the failure never ran
+    assertEquals(0, stage(Stage.VALIDATION, "server_error").count());
+    assertEquals(0, stage(Stage.CONVERSION, "success").count());
+    assertEquals(1, total("server_error").count());
+  }
+
+  private void send(int status) {
+    template.send("direct:allStages", exchange -> exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, status));
+  }
+
+  private Timer stage(Stage stage, String outcome) {
+    return registry.get("customer.route.stage")
+        .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+        .tag("outcome", outcome)
+        .timer();
+  }
+
+  private Timer total(String outcome) {
+    return registry.get("customer.route.total").tag("outcome", outcome).timer();
+  }
+}
@@ -0,0 +1,58 @@
+package com.insulet.practice.first.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.utils.ValidDateRange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+class ValidationViolationCounterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ValidationViolationCounter counter = new ValidationViolationCounter(registry);
+
+  @Test
+  void count_shouldTagEachViolationWithItsPropertyAndConstraint() {
+    try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+      Validator validator = factory.getValidator();
+
+      counter.count(validator.validate(
+          new CustomerRequest("CUST123", "2024-12-31T00:00:00.000Z", "2024-01-01T00:00:00.000Z", -1, 501, null)));
+      counter.count(validator.validate(new CustomerRequest("CUST123", null, null, 0, 501, null)));
+    }
+
+    assertEquals(2, count("limit", "Max"));
+    assertEquals(1, count("page", "Min"));
+    // The class-level date range check reports against startDate
+    assertEquals(1, count("startDate", "ValidDateRange"));
+  }
+
+  @Test
+  void counter_shouldShareTheMeterWithCount() {
+    assertSame(counter.counter("limit", Max.class), counter.counter("limit", Max.class));
+
+    counter.counter("page", Min.class).increment();
+
+    assertEquals(1, count("page", "Min"));
+    // Violations without a property path are tagged as the whole request
+    assertSame(counter.counter("", ValidDateRange.class),
+        registry.get("customer.validation.violations").tag("property", "request").counter());
+  }
+
+  private double count(String property, String constraint) {
+    return registry.get("customer.validation.violations")
+        .tag("property", property)
+        .tag("constraint", constraint)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,84 @@
+package com.insulet.practice.first.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Objects;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+
+class CustomerRequestTest {
+
+  private static final String START = "2024-01-01T00:00:00.000Z";
+  private static final String END = "2024-12-31T23:59:59.999Z";
+
+  @Test
+  void fromExchange_shouldConvertQueryParameters() {
+    Exchange exchange = exchange();
+    exchange.getIn().setHeader("customerId", "CUST123");
+    exchange.getIn().setHeader("startDate", START);
+    exchange.getIn().setHeader("endDate", END);
+    exchange.getIn().setHeader("page", "3");
+    exchange.getIn().setHeader("limit", "-20");
+    exchange.getIn().setHeader("cursor", "abc");
+
+    CustomerRequest request = CustomerRequest.fromExchange(exchange, 100);
+
+    assertEquals(new CustomerRequest("CUST123", START, END, 3, -20, "abc"), request);
+    assertEquals(3, request.getPageOrZero());
+    assertEquals(-20, request.getLimitOrZero());
+    assertEquals(1_704_067_200_000L, request.getStartEpochMillis());
+  }
+
+  @Test
+  void fromExchange_withoutPaging_shouldDefaultPageAndLimit() {
+    Exchange exchange = exchange();
+    exchange.getIn().setHeader("customerId", "CUST123");
+    exchange.getIn().setHeader("limit", 7);
+
+    CustomerRequest request = CustomerRequest.fromExchange(exchange, 100);
+    assertEquals(0, request.getPage());
+    assertEquals(7, request.getLimit());
+
+    exchange.getIn().removeHeader("limit");
+    assertEquals(100, CustomerRequest.fromExchange(exchange, 100).getLimit());
+
+    CustomerRequest noDefault = CustomerRequest.fromExchange(exchange, null);
+    assertFalse(noDefault.hasLimit());
+    assertNull(noDefault.getLimit());
+    assertEquals(0, noDefault.getLimitOrZero());
+  }
+
+  @Test
+  void boxedView_shouldKeepAbsentPagingDistinctFromZero() {
+    CustomerRequest absent = new CustomerRequest("CUST123", null, null, null, null);
+    CustomerRequest zero = new CustomerRequest("CUST123", null, null, 0, 0);
+
+    assertNull(absent.getPage());
+    assertTrue(zero.hasPage());
+    assertEquals(0, zero.getPage());
+    assertFalse(absent.equals(zero));
+    assertEquals("CustomerRequest{customerId='CUST123', startDate='null', endDate='null', page=null, limit=null, "
+        + "cursor='null'}", absent.toString());
+    assertEquals(Objects.hash("CUST123", START, END, 2, 500, null),
+        new CustomerRequest("CUST123", START, END, 2, 500).hashCode());
+  }
+
+  @Test
+  void customerId_shouldBeSharedBetweenRequestsForTheSameCustomer() {
+    CustomerRequest first = new CustomerRequest(new String("CUST-SHARED"), START, END, 0, 10);
+    CustomerRequest second = new CustomerRequest(new String("CUST-SHARED"), START, END, 1, 10);
+
+    assertSame(first.getCustomerId(), second.getCustomerId());
+  }
+
+  private static Exchange exchange() {
+    return new DefaultExchange(new DefaultCamelContext());
+  }
+}
@@ -0,0 +1,91 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.AdaptiveLimitProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long MILLI = 1_000_000L;
+
+  private final AdaptiveLimitProperties properties = new AdaptiveLimitProperties();
+
+  @BeforeEach
+  void setUp() {
+    properties.setEnabled(true);
+  }
+
+  @Test
+  void sample_withSteadyLatencyUnderLoad_shouldGrowToMaxLimit() {
+    properties.setInitialLimit(20);
+    properties.setMaxLimit(100);
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+    for (int i = 0; i < 1_000; i++) {
+      limiter.sample(5 * MILLI, limiter.getLimit());
+    }
+
+    assertEquals(100, limiter.getLimit());
+  }
+
+  @Test
+  void sample_whenLatencyDegrades_shouldShrinkTowardMinLimit() {
+    properties.setInitialLimit(200);
+    properties.setMinLimit(8);
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+    for (int i = 0; i < 600; i++) {
+      limiter.sample(5 * MILLI, limiter.getLimit());
+    }
+    int before = limiter.getLimit();
+
+    for (int i = 0; i < 200; i++) {
+      limiter.sample(100 * MILLI, limiter.getLimit());
+    }
+
+    assertTrue(limiter.getLimit() < before / 4, "limit " + limiter.getLimit() + " from " + before);
+  }
+
+  @Test
+  void sample_withMostSlotsIdle_shouldKeepTheLimit() {
+    properties.setInitialLimit(40);
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+    for (int i = 0; i < 200; i++) {
+      limiter.sample((i % 2 == 0 ? 5 : 500) * MILLI, 1);
+    }
+
+    assertEquals(40, limiter.getLimit());
+  }
+
+  @Test
+  void process_overLimit_shouldShedAndReleaseOnCompletion() throws Exception {
+    properties.setInitialLimit(1);
+    properties.setMinLimit(1);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+    CamelContext camelContext = new DefaultCamelContext();
+
+    Exchange first = new DefaultExchange(camelContext);
+    limiter.process(first);
+    assertThrows(ConcurrencyLimitExceededException.class,
+        () -> limiter.process(new DefaultExchange(camelContext)));
+
+    first.getExchangeExtension().handoverCompletions().forEach(synchronization -> synchronization.onComplete(first));
+    assertEquals(0, limiter.getInFlight());
+    limiter.process(new DefaultExchange(camelContext));
+    assertEquals(1.0, registry.get("customer.requests.adaptive.shed").counter().count());
+    assertEquals(2.0, registry.get("customer.requests.adaptive.admitted").counter().count());
+  }
+}
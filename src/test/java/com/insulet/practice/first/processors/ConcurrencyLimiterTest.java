@@ -0,0 +1,133 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.insulet.practice.first.model.R2dbcProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimiterTest {
+
+  private final ExecutionProperties properties = new ExecutionProperties();
+  private final ConnectionPoolProperties poolProperties = new ConnectionPoolProperties();
+  private final R2dbcProperties r2dbcProperties = new R2dbcProperties();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CamelContext camelContext = new DefaultCamelContext();
+
+  @AfterEach
+  void tearDown() {
+    camelContext.stop();
+  }
+
+  @Test
+  void maxConcurrent_inVirtualMode_shouldDefaultToTheHikariPoolSizeLessHeadroom() {
+    properties.setMode(ExecutionProperties.Mode.VIRTUAL);
+    // Sizing is read from the configuration, the pool never opens a connection here
+    try (HikariDataSource dataSource = new HikariDataSource()) {
+      dataSource.setMaximumPoolSize(7);
+
+      assertEquals(5, limiter(dataSource).getMaxConcurrent());
+
+      poolProperties.setHeadroom(10);
+      assertEquals(1, limiter(dataSource).getMaxConcurrent());
+    }
+  }
+
+  @Test
+  void maxConcurrent_inVirtualModeWithoutHikari_shouldUseHikarisDefaultLessHeadroom() {
+    properties.setMode(ExecutionProperties.Mode.VIRTUAL);
+
+    assertEquals(8, limiter(new DriverManagerDataSource()).getMaxConcurrent());
+  }
+
+  @Test
+  void maxConcurrent_inReactiveMode_shouldDefaultToTheR2dbcPoolSize() {
+    properties.setMode(ExecutionProperties.Mode.REACTIVE);
+    r2dbcProperties.setMaxSize(12);
+
+    assertEquals(12, limiter(new DriverManagerDataSource()).getMaxConcurrent());
+  }
+
+  @Test
+  void maxConcurrent_inPlatformMode_shouldBeUnlimitedUnlessConfigured() {
+    assertEquals(0, limiter(new DriverManagerDataSource()).getMaxConcurrent());
+
+    properties.setMaxConcurrent(3);
+    assertEquals(3, limiter(new DriverManagerDataSource()).getMaxConcurrent());
+  }
+
+  @Test
+  void process_whenNoPermitFreesUpWithinAcquireTimeout_shouldReject() throws Exception {
+    properties.setMaxConcurrent(1);
+    properties.setAcquireTimeout(Duration.ofMillis(50));
+    ConcurrencyLimiter limiter = limiter(new DriverManagerDataSource());
+    Exchange first = new DefaultExchange(camelContext);
+    limiter.process(first);
+
+    long start = System.nanoTime();
+    assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.process(new DefaultExchange(camelContext)));
+
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+    assertEquals(1.0, registry.get("customer.requests.concurrency.rejected").counter().count());
+    assertEquals(1.0, registry.get("customer.requests.inflight").gauge().value());
+  }
+
+  @Test
+  void process_shouldReleaseThePermitWhenTheExchangeCompletesOrFails() throws Exception {
+    properties.setMaxConcurrent(1);
+    properties.setAcquireTimeout(Duration.ofMillis(50));
+    ConcurrencyLimiter limiter = limiter(new DriverManagerDataSource());
+    camelContext.addRoutes(new RouteBuilder() {
+      @Override
+      public void configure() {
+        from("direct:ok").process(limiter);
+        from("direct:failed").process(limiter).throwException(new IllegalStateException("boom"));
+        from("direct:handled")
+            .onException(IllegalStateException.class).handled(true).end()
+            .process(limiter)
+            .throwException(new IllegalStateException("boom"));
+      }
+    });
+    camelContext.start();
+    ProducerTemplate template = camelContext.createProducerTemplate();
+
+    // With a single permit each request only gets in if the one before gave its permit back
+    for (String route : new String[] {"direct:ok", "direct:failed", "direct:handled", "direct:ok"}) {
+      Exchange exchange = template.send(route, request -> { });
+      if (route.equals("direct:failed")) {
+        assertInstanceOf(IllegalStateException.class, exchange.getException());
+      } else {
+        assertNull(exchange.getException());
+      }
+      assertEquals(0.0, registry.get("customer.requests.inflight").gauge().value());
+    }
+    assertEquals(0.0, registry.get("customer.requests.concurrency.rejected").counter().count());
+    assertEquals(1.0, registry.get("customer.requests.inflight.peak").gauge().value());
+  }
+
+  private ConcurrencyLimiter limiter(DataSource dataSource) {
+    return new ConcurrencyLimiter(properties, dataSource, poolProperties, r2dbcProperties, registry);
+  }
+}
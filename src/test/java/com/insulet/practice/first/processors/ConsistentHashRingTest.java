@@ -0,0 +1,75 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  private static final List<String> NODES = List.of(
+      "http://10.0.0.1:8080", "http://10.0.0.2:8080", "http://10.0.0.3:8080", "http://10.0.0.4:8080");
+  private static final int KEYS = 100_000;
+
+  @Test
+  void owner_shouldNotDependOnNodeOrder() {
+    ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+    ConsistentHashRing reversed = new ConsistentHashRing(NODES.reversed(), 128);
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(ring.owner("CUST" + i), reversed.owner("CUST" + i));
+    }
+  }
+
+  @Test
+  void owner_shouldSpreadCustomersEvenly() {
+    ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      counts.merge(ring.owner("CUST" + i), 1, Integer::sum);
+    }
+
+    double fair = 1.0 / NODES.size();
+    for (String node : NODES) {
+      double share = counts.getOrDefault(node, 0) / (double) KEYS;
+      assertTrue(Math.abs(share - fair) < 0.25 * fair, node + " owns " + share + " of the customers");
+    }
+    Map<String, Double> ownership = ring.ownership();
+    assertEquals(1.0, ownership.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+    for (String node : NODES) {
+      assertTrue(Math.abs(ownership.get(node) - fair) < 0.25 * fair, node + " owns " + ownership.get(node));
+    }
+  }
+
+  @Test
+  void addingANode_shouldOnlyMoveCustomersToIt() {
+    ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+    String added = "http://10.0.0.5:8080";
+    ConsistentHashRing after = new ConsistentHashRing(
+        List.of(NODES.get(0), NODES.get(1), NODES.get(2), NODES.get(3), added), 128);
+
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      String previous = before.owner("CUST" + i);
+      String current = after.owner("CUST" + i);
+      if (!previous.equals(current)) {
+        assertEquals(added, current);
+        moved++;
+      }
+    }
+    double share = moved / (double) KEYS;
+    assertTrue(share > 0.15 && share < 0.25, share + " of the customers moved");
+  }
+
+  @Test
+  void singleNode_shouldOwnEverything() {
+    ConsistentHashRing ring = new ConsistentHashRing(List.of(NODES.get(0)), 16);
+
+    assertEquals(NODES.get(0), ring.owner("CUST123"));
+    assertEquals(1.0, ring.ownership().get(NODES.get(0)), 1e-9);
+  }
+}
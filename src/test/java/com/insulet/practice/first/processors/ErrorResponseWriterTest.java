@@ -0,0 +1,60 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulet.practice.first.model.ErrorResponse;
+
+class ErrorResponseWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ErrorResponseWriter writer = new ErrorResponseWriter();
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "limit: Limit cannot be greater than 500",
+      "",
+      "quote \" backslash \\ newline \n tab \t",
+      "control \u0001 and unicode é中😀" })
+  void write_shouldMatchJacksonSerialization(String message) throws Exception {
+    long timestamp = 1_718_000_000_123L;
+
+    byte[] expected = objectMapper.writeValueAsBytes(
+        new ErrorResponse(message, "ValidationException", "400", timestamp));
+
+    assertArrayEquals(expected, writer.write(message, "ValidationException", 400, timestamp));
+  }
+
+  @Test
+  void write_withNullMessageAndSmallTimestamp_shouldMatchJacksonSerialization() throws Exception {
+    byte[] expected = objectMapper.writeValueAsBytes(
+        new ErrorResponse(null, "NullPointerException", "500", 7L));
+
+    assertArrayEquals(expected, writer.write(null, "NullPointerException", 500, 7L));
+    assertArrayEquals(expected, writer.write(null, "NullPointerException", 500, 7L));
+  }
+
+  @Test
+  void write_shouldOnlyPatchTimestampOnCachedBody() throws Exception {
+    writer.write("limit: Limit cannot be negative", "ValidationException", 400, 1L);
+    byte[] body = writer.write("limit: Limit cannot be negative", "ValidationException", 400, 1_718_000_000_999L);
+
+    ErrorResponse response = objectMapper.readValue(body, ErrorResponse.class);
+    assertEquals(1_718_000_000_999L, response.timestamp());
+    assertEquals(1, writer.cached());
+  }
+
+  @Test
+  void write_withManyDistinctMessages_shouldBoundTheCache() {
+    for (int i = 0; i < ErrorResponseWriter.MAX_CACHED * 2; i++) {
+      writer.write("Connection refused to replica " + i, "SQLException", 500, 1L);
+    }
+
+    assertEquals(ErrorResponseWriter.MAX_CACHED, writer.cached());
+  }
+}
@@ -0,0 +1,39 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.exceptions.ConcurrencyLimitExceededException;
+import com.insulet.practice.first.model.ExportProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExportConcurrencyLimiterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CamelContext camelContext = new DefaultCamelContext();
+
+  @Test
+  void process_pastMaxConcurrent_shouldRejectUntilAnExportCompletes() throws Exception {
+    ExportProperties properties = new ExportProperties();
+    properties.setMaxConcurrent(2);
+    ExportConcurrencyLimiter limiter = new ExportConcurrencyLimiter(properties, registry);
+    Exchange first = new DefaultExchange(camelContext);
+    limiter.process(first);
+    limiter.process(new DefaultExchange(camelContext));
+
+    assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.process(new DefaultExchange(camelContext)));
+    assertEquals(1.0, registry.get("customer.exports.concurrency.rejected").counter().count());
+    assertEquals(2.0, registry.get("customer.exports.inflight").gauge().value());
+
+    first.getExchangeExtension().handoverCompletions().forEach(completion -> completion.onComplete(first));
+    limiter.process(new DefaultExchange(camelContext));
+    assertEquals(2.0, registry.get("customer.exports.inflight").gauge().value());
+  }
+}
@@ -0,0 +1,132 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ValidationException;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulet.practice.first.model.CustomerBatchRequest;
+import com.insulet.practice.first.model.ResponseProperties;
+import com.insulet.practice.first.model.SuccessResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JsonResponseWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final CamelContext camelContext = new DefaultCamelContext();
+  private final ResponseProperties properties = new ResponseProperties();
+
+  @Test
+  void serialize_shouldMatchJacksonAndReuseTheBuffer() throws Exception {
+    JsonResponseWriter writer = writer();
+    List<SuccessResponse> page = page(100);
+
+    byte[] expected = objectMapper.writeValueAsBytes(page);
+
+    assertArrayEquals(expected, writer.serialize(page));
+    assertArrayEquals(expected, writer.serialize(page));
+    assertEquals(1, writer.pooledBuffers());
+  }
+
+  @Test
+  void serialize_withBufferAboveMaximum_shouldNotPoolIt() throws Exception {
+    properties.setMaxPooledBufferSize(DataSize.ofKilobytes(8));
+    JsonResponseWriter writer = writer();
+
+    writer.serialize(page(500));
+
+    assertEquals(0, writer.pooledBuffers());
+  }
+
+  @Test
+  void writePage_withCompressionDisabled_shouldSendIdentityJson() throws Exception {
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setHeader(JsonResponseWriter.ACCEPT_ENCODING, "gzip");
+    exchange.getIn().setBody(page(100));
+
+    writer().writePage().process(exchange);
+
+    assertEquals("application/json", exchange.getMessage().getHeader(Exchange.CONTENT_TYPE));
+    assertNull(exchange.getMessage().getHeader(JsonResponseWriter.CONTENT_ENCODING));
+    assertArrayEquals(objectMapper.writeValueAsBytes(page(100)), exchange.getMessage().getBody(byte[].class));
+  }
+
+  @Test
+  void writePage_withGzipAccepted_shouldMarkLargeBodiesOnly() throws Exception {
+    properties.getCompression().setEnabled(true);
+    JsonResponseWriter writer = writer();
+
+    Exchange large = new DefaultExchange(camelContext);
+    large.getIn().setHeader(JsonResponseWriter.ACCEPT_ENCODING, "gzip, deflate");
+    large.getIn().setBody(page(100));
+    writer.writePage().process(large);
+
+    Exchange small = new DefaultExchange(camelContext);
+    small.getIn().setHeader(JsonResponseWriter.ACCEPT_ENCODING, "gzip, deflate");
+    small.getIn().setBody(page(1));
+    writer.writePage().process(small);
+
+    assertEquals("gzip", large.getMessage().getHeader(JsonResponseWriter.CONTENT_ENCODING));
+    assertNull(small.getMessage().getHeader(JsonResponseWriter.CONTENT_ENCODING));
+  }
+
+  @Test
+  void negotiate_shouldHonourRefusalsAndPreferZstd() {
+    assertNull(JsonResponseWriter.negotiate(null, true));
+    assertNull(JsonResponseWriter.negotiate("identity", true));
+    assertNull(JsonResponseWriter.negotiate("gzip;q=0, br", true));
+    assertEquals("gzip", JsonResponseWriter.negotiate("gzip, deflate, br", true));
+    assertEquals("gzip", JsonResponseWriter.negotiate("*", false));
+    assertEquals("gzip", JsonResponseWriter.negotiate("gzip;q=0.5, zstd", false));
+    assertEquals("zstd", JsonResponseWriter.negotiate("gzip;q=0.5, ZSTD", true));
+    assertEquals("gzip", JsonResponseWriter.negotiate("zstd;q=0.0, gzip", true));
+  }
+
+  @Test
+  void readBatch_shouldParseTheRequestBody() throws Exception {
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setBody("{\"customerIds\":[\"CUST123\",\"CUST789\"],\"limit\":10}"
+        .getBytes(StandardCharsets.UTF_8));
+
+    writer().readBatch().process(exchange);
+
+    CustomerBatchRequest request = exchange.getIn().getBody(CustomerBatchRequest.class);
+    assertEquals(List.of("CUST123", "CUST789"), request.customerIds());
+    assertEquals(10, request.limit());
+  }
+
+  @Test
+  void readBatch_withMalformedJson_shouldThrowValidationException() {
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setBody("{\"customerIds\":".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(ValidationException.class, () -> writer().readBatch().process(exchange));
+  }
+
+  private JsonResponseWriter writer() {
+    return new JsonResponseWriter(objectMapper, properties, new SimpleMeterRegistry());
+  }
+
+  private static List<SuccessResponse> page(int size) {
+    List<SuccessResponse> page = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      page.add(new SuccessResponse("Customer " + i, i + " Main Street, New York, NY 10001",
+          50_000.0 + i, "1990-05-15T08:30:00.000Z"));
+    }
+    return page;
+  }
+}
@@ -0,0 +1,142 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.insulet.practice.first.exceptions.RateLimitExceededException;
+import com.insulet.practice.first.model.RateLimitProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimiterTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private final RateLimitProperties properties = new RateLimitProperties();
+
+  @BeforeEach
+  void setUp() {
+    properties.setEnabled(true);
+  }
+
+  @Test
+  void tryAcquire_shouldAdmitOneBurstThenRefillAtTheRate() {
+    RateLimiter.Buckets buckets = new RateLimiter.Buckets(10, 5, properties);
+    long now = 42 * SECOND;
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, buckets.tryAcquire("CUST123", now));
+    }
+    long wait = buckets.tryAcquire("CUST123", now);
+    assertEquals(SECOND / 10, wait);
+
+    assertTrue(buckets.tryAcquire("CUST123", now + wait - 1) > 0);
+    assertEquals(0, buckets.tryAcquire("CUST123", now + wait));
+  }
+
+  @Test
+  void tryAcquire_shouldKeepKeysIndependent() {
+    RateLimiter.Buckets buckets = new RateLimiter.Buckets(1, 1, properties);
+    long now = 42 * SECOND;
+
+    assertEquals(0, buckets.tryAcquire("CUST123", now));
+    assertTrue(buckets.tryAcquire("CUST123", now) > 0);
+    assertEquals(0, buckets.tryAcquire("CUST789", now));
+  }
+
+  @Test
+  void process_overCustomerLimit_shouldRejectWithRetryAfter() throws Exception {
+    properties.setCustomerRate(0.5);
+    properties.setCustomerBurst(1);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RateLimiter limiter = new RateLimiter(properties, registry);
+    CamelContext camelContext = new DefaultCamelContext();
+
+    limiter.process(exchange(camelContext, "CUST123"));
+    Exchange rejected = exchange(camelContext, "CUST123");
+    assertThrows(RateLimitExceededException.class, () -> limiter.process(rejected));
+
+    assertEquals(2L, rejected.getIn().getHeader(RateLimiter.RETRY_AFTER_HEADER, Long.class));
+    assertEquals(1.0, registry.get("customer.requests.ratelimit.admitted").counter().count());
+    assertEquals(1.0, registry.get("customer.requests.ratelimit.rejected").tag("scope", "customer")
+        .counter().count());
+  }
+
+  @Test
+  void process_overClientLimit_shouldRejectAcrossCustomers() throws Exception {
+    properties.setClientRate(1);
+    properties.setClientBurst(2);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RateLimiter limiter = new RateLimiter(properties, registry);
+    CamelContext camelContext = new DefaultCamelContext();
+
+    for (String customerId : new String[] { "CUST1", "CUST2" }) {
+      Exchange exchange = exchange(camelContext, customerId);
+      exchange.getIn().setHeader("X-Client-Id", "partner-batch-01");
+      limiter.process(exchange);
+    }
+    Exchange rejected = exchange(camelContext, "CUST3");
+    rejected.getIn().setHeader("X-Client-Id", "partner-batch-01");
+    assertThrows(RateLimitExceededException.class, () -> limiter.process(rejected));
+
+    limiter.process(exchange(camelContext, "CUST3"));
+    assertEquals(1.0, registry.get("customer.requests.ratelimit.rejected").tag("scope", "client")
+        .counter().count());
+  }
+
+  @Test
+  void process_rejectedByCustomerLimit_shouldNotChargeTheClient() throws Exception {
+    properties.setCustomerRate(0.001);
+    properties.setCustomerBurst(1);
+    properties.setClientRate(0.001);
+    properties.setClientBurst(2);
+    RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+    CamelContext camelContext = new DefaultCamelContext();
+
+    limiter.process(clientExchange(camelContext, "CUST1"));
+    // CUST1 is out of tokens, these must not use up the client's second one
+    for (int i = 0; i < 5; i++) {
+      Exchange throttled = clientExchange(camelContext, "CUST1");
+      RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> limiter.process(throttled));
+      assertEquals(RateLimiter.CUSTOMER_REJECTED_MESSAGE, e.getMessage());
+    }
+
+    limiter.process(clientExchange(camelContext, "CUST2"));
+  }
+
+  @Test
+  void tryAcquireCustomer_shouldShareTheBucketOfSingleLookups() throws Exception {
+    properties.setCustomerRate(0.5);
+    properties.setCustomerBurst(1);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RateLimiter limiter = new RateLimiter(properties, registry);
+    CamelContext camelContext = new DefaultCamelContext();
+
+    assertEquals(0, limiter.tryAcquireCustomer("CUST123"));
+    assertTrue(limiter.tryAcquireCustomer("CUST123") > 0);
+    assertThrows(RateLimitExceededException.class, () -> limiter.process(exchange(camelContext, "CUST123")));
+    assertEquals(0, limiter.tryAcquireCustomer("CUST789"));
+    assertEquals(2.0, registry.get("customer.requests.ratelimit.rejected").tag("scope", "customer")
+        .counter().count());
+  }
+
+  private static Exchange clientExchange(CamelContext camelContext, String customerId) {
+    Exchange exchange = exchange(camelContext, customerId);
+    exchange.getIn().setHeader("X-Client-Id", "partner-batch-01");
+    return exchange;
+  }
+
+  private static Exchange exchange(CamelContext camelContext, String customerId) {
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setHeader("customerId", customerId);
+    return exchange;
+  }
+}
@@ -0,0 +1,149 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.insulet.practice.first.model.CustomerRequest;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.processors.RequestPrecheck.Violation;
+import com.insulet.practice.first.utils.CursorPagingValidator;
+import com.insulet.practice.first.utils.CustomerRequestConstraints;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+class RequestPrecheckTest {
+
+  private static final String START = "2024-01-01T00:00:00.000Z";
+  private static final String END = "2024-12-31T23:59:59.999Z";
+
+  private static ValidatorFactory validatorFactory;
+  private static Validator validator;
+
+  @BeforeAll
+  static void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    validatorFactory.close();
+  }
+
+  static Stream<Arguments> requests() {
+    String cursor = new PageCursor(1_700_000_000_000_000L, 42L).encode();
+    return Stream.of(
+        Arguments.of("valid", new CustomerRequest("CUST123", START, END, 0, 100)),
+        Arguments.of("no dates", new CustomerRequest("CUST123", null, null, 0, 100)),
+        Arguments.of("valid cursor", new CustomerRequest("CUST123", START, END, 0, 100, cursor)),
+        Arguments.of("empty cursor", new CustomerRequest("CUST123", START, END, 3, 100, "")),
+        Arguments.of("empty customer", new CustomerRequest("", START, END, 0, 100)),
+        Arguments.of("null customer", new CustomerRequest(null, START, END, 0, 100)),
+        Arguments.of("bad start", new CustomerRequest("CUST123", "2024-01-01", END, 0, 100)),
+        Arguments.of("bad end", new CustomerRequest("CUST123", START, "2023-02-29T00:00:00.000Z", 0, 100)),
+        Arguments.of("reversed range", new CustomerRequest("CUST123", END, START, 0, 100)),
+        Arguments.of("negative page", new CustomerRequest("CUST123", START, END, -1, 100)),
+        Arguments.of("negative limit", new CustomerRequest("CUST123", START, END, 0, -1)),
+        Arguments.of("limit too large", new CustomerRequest("CUST123", START, END, 0, 501)),
+        Arguments.of("page with cursor", new CustomerRequest("CUST123", START, END, 2, 100, cursor)),
+        Arguments.of("undecodable cursor", new CustomerRequest("CUST123", START, END, 0, 100, "abc")),
+        Arguments.of("cursor alphabet", new CustomerRequest("CUST123", START, END, 0, 100, "ab+c")),
+        Arguments.of("cursor length", new CustomerRequest("CUST123", START, END, 0, 100, "a".repeat(65))),
+        Arguments.of("everything", new CustomerRequest("", "yesterday", "today", -1, 501, "a=".repeat(40))));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("requests")
+  void check_shouldReportTheSameViolationsAsBeanValidation(String name, CustomerRequest request) {
+    Set<String> expected = beanValidation(request);
+    int violations = RequestPrecheck.check(request);
+
+    assertEquals(expected, precheck(violations));
+    assertEquals(expected.isEmpty(), violations == 0);
+  }
+
+  // Compiled validation replaces bean-validator entirely, so every combination of boundary values
+  // has to agree, not only the hand-picked cases above
+  @Test
+  void check_shouldAgreeWithBeanValidationOnEveryCombination() {
+    String cursor = new PageCursor(1_700_000_000_000_000L, 42L).encode();
+    List<String> customerIds = Arrays.asList(null, "", "CUST123");
+    List<String> dates = Arrays.asList(null, "", START, END, "2024-01-01", "2023-02-29T00:00:00.000Z");
+    List<Integer> pages = Arrays.asList(null, -1, 0, 1);
+    List<Integer> limits = Arrays.asList(null, -1, 0, 500, 501);
+    List<String> cursors = Arrays.asList(null, "", cursor, "abc", "ab+c", "a".repeat(64), "a".repeat(65),
+        "=".repeat(65));
+
+    List<String> mismatches = new ArrayList<>();
+    int checked = 0;
+    for (String customerId : customerIds) {
+      for (String startDate : dates) {
+        for (String endDate : dates) {
+          for (Integer page : pages) {
+            for (Integer limit : limits) {
+              for (String pageCursor : cursors) {
+                CustomerRequest request = new CustomerRequest(customerId, startDate, endDate, page, limit, pageCursor);
+                Set<String> expected = beanValidation(request);
+                Set<String> actual = precheck(RequestPrecheck.check(request));
+                if (!expected.equals(actual) && mismatches.size() < 10) {
+                  mismatches.add(request + " bean-validator " + expected + " precheck " + actual);
+                }
+                checked++;
+              }
+            }
+          }
+        }
+      }
+    }
+
+    assertEquals(List.of(), mismatches, "out of " + checked + " requests");
+  }
+
+  @Test
+  void isBase64Url_shouldAcceptExactlyWhatTheCursorPatternAccepts() {
+    Pattern pattern = Pattern.compile(CustomerRequestConstraints.CURSOR_PATTERN);
+    for (char c = 0; c < 0x300; c++) {
+      String value = "ab" + c;
+      assertEquals(pattern.matcher(value).matches(), CursorPagingValidator.isBase64Url(value),
+          "character " + (int) c);
+    }
+  }
+
+  private static Set<String> beanValidation(CustomerRequest request) {
+    Set<String> messages = new TreeSet<>();
+    for (ConstraintViolation<CustomerRequest> violation : validator.validate(request)) {
+      messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+    }
+    return messages;
+  }
+
+  private static Set<String> precheck(int violations) {
+    Set<String> messages = new TreeSet<>();
+    for (Violation violation : Violation.values()) {
+      if ((violations & (1 << violation.ordinal())) != 0) {
+        messages.add(violation.property() + ": " + violation.message());
+      }
+    }
+    // The rejection message lists the same entries, in declaration order
+    assertEquals(messages, new TreeSet<>(violations == 0 ? List.of() : List.of(RequestPrecheck.describe(violations)
+        .split(", (?=[a-zA-Z]+: )"))));
+    return messages;
+  }
+}
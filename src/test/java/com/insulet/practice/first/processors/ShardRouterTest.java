@@ -0,0 +1,213 @@
+package com.insulet.practice.first.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.insulet.practice.first.model.RateLimitProperties;
+import com.insulet.practice.first.model.ShardingProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShardRouterTest {
+
+  private static final String SELF = "http://localhost:1";
+
+  private HttpServer peerServer;
+  private String peer;
+  private final ConcurrentLinkedQueue<HttpExchange> received = new ConcurrentLinkedQueue<>();
+  private volatile long peerDelayMillis;
+
+  private CamelContext camelContext;
+  private SimpleMeterRegistry registry;
+  private ShardingProperties properties;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    // Stands in for the owning node
+    peerServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    peerServer.createContext("/", exchange -> {
+      received.add(exchange);
+      try {
+        Thread.sleep(peerDelayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = "[{\"customerId\":\"from-peer\"}]".getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.getResponseHeaders().add("X-Next-Cursor", "next-from-peer");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    peerServer.start();
+    peer = "http://localhost:" + peerServer.getAddress().getPort();
+
+    camelContext = new DefaultCamelContext();
+    camelContext.start();
+    registry = new SimpleMeterRegistry();
+    properties = new ShardingProperties();
+    properties.setEnabled(true);
+    properties.setSelf(SELF);
+    properties.setPeers(List.of(SELF, peer));
+    properties.setForwardTimeout(Duration.ofSeconds(5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    peerServer.stop(0);
+    camelContext.stop();
+  }
+
+  @Test
+  void process_forCustomerOwnedHere_shouldContinueLocally() throws Exception {
+    ShardRouter router = router();
+    Exchange exchange = request(customerOwnedBy(router, SELF));
+
+    router.process(exchange);
+
+    assertFalse(exchange.isRouteStop());
+    assertTrue(received.isEmpty());
+    assertEquals(1.0, registry.get("customer.shard.requests").tag("route", "owned").counter().count());
+  }
+
+  @Test
+  void process_forCustomerOwnedByPeer_shouldReturnThePeersResponse() throws Exception {
+    ShardRouter router = router();
+    String customerId = customerOwnedBy(router, peer);
+    Exchange exchange = request(customerId);
+    exchange.getIn().setHeader("X-Client-Id", "client-7");
+
+    router.process(exchange);
+
+    assertTrue(exchange.isRouteStop());
+    assertEquals(200, exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class));
+    assertEquals("next-from-peer", exchange.getMessage().getHeader("X-Next-Cursor"));
+    assertEquals("[{\"customerId\":\"from-peer\"}]",
+        new String(exchange.getMessage().getBody(byte[].class), StandardCharsets.UTF_8));
+
+    HttpExchange forwarded = received.poll();
+    assertEquals("/data-share/v1/customers/" + customerId, forwarded.getRequestURI().getPath());
+    assertEquals("limit=5&page=1", forwarded.getRequestURI().getQuery());
+    assertEquals(SELF, forwarded.getRequestHeaders().getFirst(ShardRouter.FORWARDED_BY_HEADER));
+    assertEquals("client-7", forwarded.getRequestHeaders().getFirst("X-Client-Id"));
+    assertNull(forwarded.getRequestHeaders().getFirst("customerId"));
+    assertEquals(1.0, registry.get("customer.shard.requests").tag("route", "forwarded").counter().count());
+  }
+
+  @Test
+  void process_whenPeerIsTooSlow_shouldFallBackToLocal() throws Exception {
+    properties.setForwardTimeout(Duration.ofMillis(100));
+    peerDelayMillis = 2000;
+    ShardRouter router = router();
+    Exchange exchange = request(customerOwnedBy(router, peer));
+
+    long start = System.nanoTime();
+    router.process(exchange);
+
+    assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    assertFalse(exchange.isRouteStop());
+    assertEquals(1.0, registry.get("customer.shard.fallback").tag("reason", "timeout").counter().count());
+
+    // The abandoned forward is cancelled and its HTTP call times out too, long before the peer answers
+    long deadline = System.nanoTime() + 1_000_000_000L;
+    while (activeForwards() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0.0, activeForwards());
+  }
+
+  @Test
+  void process_whenPeerIsDown_shouldFallBackToLocal() throws Exception {
+    String down;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      down = "http://localhost:" + socket.getLocalPort();
+    }
+    properties.setPeers(List.of(SELF, down));
+    ShardRouter router = router();
+    Exchange exchange = request(customerOwnedBy(router, down));
+
+    router.process(exchange);
+
+    assertFalse(exchange.isRouteStop());
+    assertEquals(1.0, registry.get("customer.shard.fallback").tag("reason", "error").counter().count());
+  }
+
+  @Test
+  void process_forForwardedRequest_shouldNeverForwardAgain() throws Exception {
+    ShardRouter router = router();
+    Exchange exchange = request(customerOwnedBy(router, peer));
+    exchange.getIn().setHeader(ShardRouter.FORWARDED_BY_HEADER, "http://localhost:2");
+
+    router.process(exchange);
+
+    assertFalse(exchange.isRouteStop());
+    assertTrue(received.isEmpty());
+    assertEquals(1.0, registry.get("customer.shard.requests").tag("route", "received").counter().count());
+  }
+
+  @Test
+  void refresh_shouldPickUpPeersFromTheFile(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("peers");
+    Files.writeString(file, "# shard peers\n" + peer + "/\n");
+    properties.setPeers(List.of());
+    properties.setPeersFile(file.toString());
+    ShardRouter router = router();
+    assertEquals(Set.of(SELF, peer), Set.copyOf(router.ring().nodes()));
+
+    Files.writeString(file, peer + "\nhttp://localhost:3  # new node\n");
+    router.refresh();
+
+    assertEquals(Set.of(SELF, peer, "http://localhost:3"), Set.copyOf(router.ring().nodes()));
+    assertEquals(3.0, registry.get("customer.shard.peers").gauge().value());
+  }
+
+  private double activeForwards() {
+    return registry.get("customer.shard.forwards.active").gauge().value();
+  }
+
+  private ShardRouter router() {
+    return new ShardRouter(properties, new RateLimitProperties(), camelContext, registry);
+  }
+
+  private Exchange request(String customerId) {
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setHeader("customerId", customerId);
+    exchange.getIn().setHeader("page", "1");
+    exchange.getIn().setHeader(Exchange.HTTP_QUERY, "limit=5&page=1");
+    return exchange;
+  }
+
+  private static String customerOwnedBy(ShardRouter router, String node) {
+    for (int i = 0;; i++) {
+      if (router.ring().owner("CUST" + i).equals(node)) {
+        return "CUST" + i;
+      }
+    }
+  }
+}
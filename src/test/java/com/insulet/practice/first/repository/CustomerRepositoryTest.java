@@ -0,0 +1,137 @@
+package com.insulet.practice.first.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insulet.practice.first.model.CustomerPage;
+import com.insulet.practice.first.model.CustomerQuery;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.model.SuccessResponse;
+
+/**
+ * Runs on a host whose default zone is not UTC: recorded_at and dob hold UTC wall-clock time, so
+ * neither the filters nor the returned dob may move with the JVM zone.
+ */
+class CustomerRepositoryTest {
+
+  private TimeZone defaultZone;
+  private EmbeddedDatabase database;
+  private CustomerRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    defaultZone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+    resetH2Zone();
+    database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .addScript("db/migration/h2/V2__customer_records.sql")
+        .addScript("db/testdata/V1000__seed_customer_records.sql")
+        .build();
+    repository = new CustomerRepository(new NamedParameterJdbcTemplate(database));
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+    TimeZone.setDefault(defaultZone);
+    resetH2Zone();
+  }
+
+  @Test
+  void findRecords_withDateRange_shouldCompareInUtc() {
+    long recordedAt = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+
+    CustomerPage page = repository.findRecords(
+        new CustomerQuery("CUST123", recordedAt, recordedAt, 0, 10, null));
+
+    assertEquals(1, page.records().size());
+    assertEquals("456 Oak Avenue, New York, NY 10002", page.records().get(0).address());
+  }
+
+  @Test
+  void findRecords_shouldReturnDobAsUtc() {
+    CustomerPage page = repository.findRecords(new CustomerQuery("CUST789", null, null, 0, 10, null));
+
+    assertEquals("1985-11-02T00:00:00.000Z", page.records().get(0).dob());
+  }
+
+  @Test
+  void findRecords_withBatchDateRange_shouldCompareInUtc() {
+    long start = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+    long end = Instant.parse("2024-06-15T09:00:00Z").toEpochMilli();
+
+    List<SuccessResponse> records = repository.findRecords(List.of("CUST123", "CUST789"),
+        new CustomerQuery(null, start, end, 0, 10, null)).get("CUST789");
+
+    assertEquals(1, records.size());
+    assertEquals("1 Harbor Way, Seattle, WA 98101", records.get(0).address());
+  }
+
+  @Test
+  void findRecords_withCursor_shouldWalkEveryRecordOnce() {
+    List<String> addresses = new ArrayList<>();
+    PageCursor after = null;
+    do {
+      CustomerPage page = repository.findRecords(new CustomerQuery("CUST123", null, null, 0, 1, after));
+      page.records().forEach(record -> addresses.add(record.address()));
+      after = PageCursor.decode(page.nextCursor());
+    } while (after != null);
+
+    assertEquals(List.of(
+        "789 Pine Road, Boston, MA 02101",
+        "456 Oak Avenue, New York, NY 10002",
+        "123 Main Street, New York, NY 10001"), addresses);
+  }
+
+  @Test
+  void openExport_shouldStreamEveryRecord() throws Exception {
+    try (InputStream export = repository.openExport(new CustomerQuery("CUST123", null, null, 0, 0, null), 100,
+        Duration.ofMinutes(1), recordWriter(), false)) {
+      String body = new String(export.readAllBytes(), StandardCharsets.UTF_8);
+
+      assertEquals(3, body.lines().count());
+    }
+  }
+
+  @Test
+  void openExport_pastItsMaxDuration_shouldFailTheStream() throws Exception {
+    try (InputStream export = repository.openExport(new CustomerQuery("CUST123", null, null, 0, 0, null), 100,
+        Duration.ZERO, recordWriter(), false)) {
+      assertThrows(IOException.class, export::read);
+    }
+  }
+
+  private static ObjectWriter recordWriter() {
+    return new ObjectMapper().writerFor(SuccessResponse.class);
+  }
+
+  // H2 caches the JVM zone on first use; reset it so the new default applies to this database
+  private static void resetH2Zone() {
+    try {
+      Class.forName("org.h2.util.DateTimeUtils").getMethod("resetCalendar").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      // Older or newer H2 without the cache, nothing to reset
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.insulet.practice.first.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.insulet.practice.first.model.ConnectionPoolProperties;
+import com.insulet.practice.first.model.ExecutionProperties;
+import com.insulet.practice.first.model.ReplicaProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Two embedded H2 databases stand in for the primary and the replica. Each has a source_db table
+ * holding its own name, and the replica reports its lag from a table the test controls.
+ */
+class ReplicaRouterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ReplicaProperties properties = new ReplicaProperties();
+
+  private EmbeddedDatabase primary;
+  private String replicaUrl;
+  private JdbcTemplate replica;
+  private ReplicaRouter router;
+
+  @BeforeEach
+  void setUp() {
+    primary = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    new JdbcTemplate(primary).execute("CREATE TABLE source_db AS SELECT 'primary' AS name");
+
+    replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+    replica.execute("CREATE TABLE source_db AS SELECT 'replica' AS name");
+    replica.execute("CREATE TABLE replica_status AS SELECT CAST(0 AS DOUBLE) AS lag");
+
+    ReplicaProperties.Target target = new ReplicaProperties.Target();
+    target.setName("replica1");
+    target.setUrl(replicaUrl);
+    target.setUsername("sa");
+    target.setPassword("");
+    properties.setEnabled(true);
+    properties.setTargets(List.of(target));
+    properties.setMaxLag(Duration.ofSeconds(5));
+    properties.setLagQuery("SELECT lag FROM replica_status");
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (router != null) {
+      router.destroy();
+    }
+    replica.execute("SHUTDOWN");
+    primary.shutdown();
+  }
+
+  @Test
+  void read_beforeFirstCheck_shouldUsePrimary() {
+    router = router();
+
+    assertEquals("primary", read());
+  }
+
+  @Test
+  void read_withHealthyReplica_shouldUseReplica() {
+    router = router();
+    router.check();
+
+    assertEquals("replica", read());
+    assertEquals(1.0, registry.get("customer.datasource.reads").tag("target", "replica1").counter().count());
+    assertEquals(1.0, registry.get("customer.datasource.replica.healthy").tag("target", "replica1").gauge().value());
+  }
+
+  @Test
+  void read_withLaggingReplica_shouldFallBackUntilItCatchesUp() {
+    router = router();
+    replica.update("UPDATE replica_status SET lag = 30");
+    router.check();
+
+    assertEquals("primary", read());
+    assertEquals(30.0, registry.get("customer.datasource.replica.lag").tag("target", "replica1").gauge().value());
+    assertEquals(1.0, registry.get("customer.datasource.fallback").tag("reason", "unhealthy").counter().count());
+
+    replica.update("UPDATE replica_status SET lag = 1");
+    router.check();
+
+    assertEquals("replica", read());
+  }
+
+  @Test
+  void read_withUnreachableReplica_shouldFallBackToPrimary() {
+    router = router();
+    router.check();
+    replica.execute("DROP TABLE replica_status");
+    router.check();
+
+    assertEquals("primary", read());
+    assertEquals("primary", router.health().getDetails().get("readsFrom"));
+  }
+
+  @Test
+  void read_withReplicasDisabled_shouldAlwaysUsePrimary() {
+    properties.setEnabled(false);
+    router = router();
+    router.check();
+
+    assertEquals("primary", read());
+  }
+
+  private ReplicaRouter router() {
+    return new ReplicaRouter(primary, properties, new ConnectionPoolProperties(), new ExecutionProperties(), registry);
+  }
+
+  private String read() {
+    return new JdbcTemplate(router.readDataSource()).queryForObject("SELECT name FROM source_db", String.class);
+  }
+}
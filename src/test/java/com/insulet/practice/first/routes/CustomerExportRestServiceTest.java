@@ -0,0 +1,91 @@
+package com.insulet.practice.first.routes;
+
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulet.practice.first.FirstApplication;
+import com.insulet.practice.first.model.SuccessResponse;
+
+@CamelSpringBootTest
+@SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT)
+@Import(TestConfig.class)
+class CustomerExportRestServiceTest {
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testExport_withoutFormat_shouldStreamNdjsonNewestFirst() throws Exception {
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/CUST123/export",
+        String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotNull(response.getBody());
+    String[] lines = response.getBody().split("\n");
+    assertEquals(3, lines.length);
+    assertEquals("789 Pine Road, Boston, MA 02101",
+        objectMapper.readValue(lines[0], SuccessResponse.class).address());
+    assertEquals("123 Main Street, New York, NY 10001",
+        objectMapper.readValue(lines[2], SuccessResponse.class).address());
+  }
+
+  @Test
+  void testExport_withJsonFormatAndDateRange_shouldStreamJsonArray() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123/export")
+        .queryParam("startDate", "2024-01-01T00:00:00.000Z")
+        .queryParam("endDate", "2024-12-31T23:59:59.999Z")
+        .queryParam("format", "json")
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    SuccessResponse[] records = objectMapper.readValue(response.getBody(), SuccessResponse[].class);
+    assertEquals(2, records.length);
+  }
+
+  @Test
+  void testExport_withUnknownCustomerAndJsonFormat_shouldReturnEmptyArray() throws Exception {
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/NOBODY/export?format=json",
+        String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("[]", response.getBody());
+  }
+
+  @Test
+  void testExport_withUnsupportedFormat_shouldReturn400() throws Exception {
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/CUST123/export?format=csv",
+        String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertTrue(response.getBody().contains("format"));
+  }
+
+  @Test
+  void testExport_withInvalidStartDate_shouldReturn400() throws Exception {
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/CUST123/export?startDate=2024-01-01",
+        String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertTrue(response.getBody().contains("startDate"));
+  }
+}
@@ -0,0 +1,69 @@
+package com.insulet.practice.first.routes;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import com.insulet.practice.first.FirstApplication;
+
+/**
+ * gzip responses over the wire. JsonResponseWriter only sets Content-Encoding and leaves the
+ * compression to platform-http, so this reads the raw bytes with a client that does not decode them.
+ */
+@CamelSpringBootTest
+@SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = {
+        "application.response.compression.enabled=true",
+        "application.response.compression.min-size=0",
+        "application.response.compression.zstd=false" })
+@Import(TestConfig.class)
+class CustomerRestServiceCompressionTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Test
+  void testGetCustomerById_withAcceptEncodingGzip_shouldSendAGzippedBody() throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + port + "/data-share/v1/customers/CUST123"))
+        .header("Accept-Encoding", "gzip")
+        .build();
+
+    HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+    assertEquals(200, response.statusCode());
+    assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+    String body;
+    try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+      body = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    assertTrue(body.contains("789 Pine Road"), body);
+  }
+
+  @Test
+  void testGetCustomerById_withoutAcceptEncoding_shouldSendPlainJson() throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + port + "/data-share/v1/customers/CUST123"))
+        .build();
+
+    HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    assertTrue(response.body().contains("789 Pine Road"), response.body());
+  }
+}
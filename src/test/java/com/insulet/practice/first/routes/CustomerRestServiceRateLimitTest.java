@@ -0,0 +1,65 @@
+package com.insulet.practice.first.routes;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.insulet.practice.first.FirstApplication;
+import com.insulet.practice.first.model.CustomerBatchEntry;
+import com.insulet.practice.first.model.CustomerBatchResponse;
+
+/**
+ * Per-customer rate limits across the single and batch lookups: one request per customer, then the
+ * bucket stays empty for the rest of the test.
+ */
+@CamelSpringBootTest
+@SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = {
+        "application.request.rate-limit.enabled=true",
+        "application.request.rate-limit.customer-rate=0.001",
+        "application.request.rate-limit.customer-burst=1" })
+@Import(TestConfig.class)
+class CustomerRestServiceRateLimitTest {
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Test
+  void testBatchGet_shouldChargeEachCustomerLikeASingleLookup() {
+    ResponseEntity<CustomerBatchResponse> first = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", Map.of("customerIds", List.of("CUST123", "CUST789")),
+        CustomerBatchResponse.class);
+
+    assertEquals(HttpStatus.OK, first.getStatusCode());
+    for (CustomerBatchEntry entry : first.getBody().results()) {
+      assertNotNull(entry.records());
+    }
+
+    // The batch used up CUST123's only token
+    ResponseEntity<String> single = restTemplate.getForEntity("/data-share/v1/customers/CUST123", String.class);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, single.getStatusCode());
+
+    ResponseEntity<CustomerBatchResponse> second = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", Map.of("customerIds", List.of("CUST789", "NOBODY")),
+        CustomerBatchResponse.class);
+
+    assertEquals(HttpStatus.OK, second.getStatusCode());
+    List<CustomerBatchEntry> results = second.getBody().results();
+    assertNull(results.get(0).records());
+    assertEquals("429", results.get(0).error().code());
+    assertEquals("Too many requests for this customer, retry later", results.get(0).error().message());
+    assertNotNull(results.get(1).records());
+  }
+}
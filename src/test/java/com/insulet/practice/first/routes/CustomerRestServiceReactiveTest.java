@@ -0,0 +1,114 @@
+package com.insulet.practice.first.routes;
+
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.insulet.practice.first.FirstApplication;
+import com.insulet.practice.first.model.SuccessResponse;
+
+/**
+ * The customer route in reactive execution mode, reading and auditing over R2DBC against the same
+ * H2 database the JDBC tests use.
+ */
+@CamelSpringBootTest
+@SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "application.request.execution.mode=reactive")
+@Import(TestConfig.class)
+class CustomerRestServiceReactiveTest {
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testGetCustomerById_withValidCustomerId_shouldReturnSuccess() {
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/CUST123",
+        String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue(response.getBody().contains("789 Pine Road"));
+  }
+
+  @Test
+  void testGetCustomerById_withDateRange_shouldReturnOnlyRecordsInRange() {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("startDate", "2024-01-01T00:00:00.000Z")
+        .queryParam("endDate", "2024-12-31T23:59:59.999Z")
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> response = restTemplate.getForEntity(url, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(2, response.getBody().length);
+    assertEquals("456 Oak Avenue, New York, NY 10002", response.getBody()[0].address());
+    assertEquals("123 Main Street, New York, NY 10001", response.getBody()[1].address());
+  }
+
+  @Test
+  void testGetCustomerById_withCursor_shouldWalkPagesUsingNextCursor() {
+    String firstUrl = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("limit", 2)
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> first = restTemplate.getForEntity(firstUrl, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, first.getStatusCode());
+    assertEquals(2, first.getBody().length);
+    String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+    assertNotNull(cursor);
+
+    String secondUrl = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("limit", 2)
+        .queryParam("cursor", cursor)
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> second = restTemplate.getForEntity(secondUrl, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, second.getStatusCode());
+    assertEquals(1, second.getBody().length);
+    assertEquals("123 Main Street, New York, NY 10001", second.getBody()[0].address());
+    assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+  }
+
+  @Test
+  void testGetCustomerById_shouldAuditRequestOverR2dbc() {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST-REACTIVE-AUDIT")
+        .queryParam("limit", 7)
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("[]", response.getBody());
+    Integer limit = jdbcTemplate.queryForObject(
+        "SELECT rec_limit FROM customer_requests WHERE customer_id = 'CUST-REACTIVE-AUDIT'", Integer.class);
+    assertEquals(7, limit);
+  }
+
+  @Test
+  void testGetCustomerById_withLimitGreaterThan500_shouldReturn400() {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("limit", 501)
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+}
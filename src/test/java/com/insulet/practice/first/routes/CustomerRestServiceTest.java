@@ -1,9 +1,14 @@
 package com.insulet.practice.first.routes;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
 import org.apache.camel.test.spring.junit5.EnableRouteCoverage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +21,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.insulet.practice.first.FirstApplication;
+import com.insulet.practice.first.model.CustomerBatchEntry;
+import com.insulet.practice.first.model.CustomerBatchRequest;
+import com.insulet.practice.first.model.CustomerBatchResponse;
+import com.insulet.practice.first.model.ErrorResponse;
+import com.insulet.practice.first.model.PageCursor;
+import com.insulet.practice.first.model.SuccessResponse;
 
 @CamelSpringBootTest
 @SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT)
@@ -33,7 +44,7 @@ class CustomerRestServiceTest {
         String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertTrue(response.getBody().contains("789 Pine Road"));
   }
 
   @Test
@@ -48,7 +59,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -61,7 +72,90 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertTrue(response.getBody().contains("Jane Roe"));
+  }
+
+  @Test
+  void testGetCustomerById_withDateRange_shouldReturnOnlyRecordsInRange() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("startDate", "2024-01-01T00:00:00.000Z")
+        .queryParam("endDate", "2024-12-31T23:59:59.999Z")
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> response = restTemplate.getForEntity(url, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(2, response.getBody().length);
+    assertEquals("456 Oak Avenue, New York, NY 10002", response.getBody()[0].address());
+    assertEquals("123 Main Street, New York, NY 10001", response.getBody()[1].address());
+  }
+
+  @Test
+  void testGetCustomerById_withPageAndLimit_shouldReturnRequestedPage() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("page", 1)
+        .queryParam("limit", 1)
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> response = restTemplate.getForEntity(url, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(1, response.getBody().length);
+    assertEquals("John Doe", response.getBody()[0].name());
+    assertEquals(78000.00, response.getBody()[0].salary());
+  }
+
+  @Test
+  void testGetCustomerById_withCursor_shouldWalkPagesUsingNextCursor() throws Exception {
+    String firstUrl = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("limit", 2)
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> first = restTemplate.getForEntity(firstUrl, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, first.getStatusCode());
+    assertEquals(2, first.getBody().length);
+    String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+    assertNotNull(cursor);
+
+    String secondUrl = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("limit", 2)
+        .queryParam("cursor", cursor)
+        .toUriString();
+
+    ResponseEntity<SuccessResponse[]> second = restTemplate.getForEntity(secondUrl, SuccessResponse[].class);
+
+    assertEquals(HttpStatus.OK, second.getStatusCode());
+    assertEquals(1, second.getBody().length);
+    assertEquals("123 Main Street, New York, NY 10001", second.getBody()[0].address());
+    assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+  }
+
+  @Test
+  void testGetCustomerById_withCursorAndPage_shouldReturn400() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("page", 2)
+        .queryParam("cursor", new PageCursor(0, 1).encode())
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertTrue(response.getBody().contains("page cannot be combined with cursor"));
+  }
+
+  @Test
+  void testGetCustomerById_withMalformedCursor_shouldReturn400() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("cursor", "not-a-cursor")
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertTrue(response.getBody().contains("cursor"));
   }
 
   @Test
@@ -73,7 +167,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -86,7 +180,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -129,6 +223,19 @@ class CustomerRestServiceTest {
     assertTrue(response.getBody().contains("endDate"));
   }
 
+  @Test
+  void testGetCustomerById_withImpossibleCalendarDate_shouldReturn400() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("startDate", "2023-02-29T00:00:00.000Z")
+        .toUriString();
+
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertTrue(response.getBody().contains("Invalid startDate format"));
+  }
+
   @Test
   void testGetCustomerById_withStartDateAfterEndDate_shouldReturn400() throws Exception {
     String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
@@ -182,6 +289,24 @@ class CustomerRestServiceTest {
     assertTrue(response.getBody().contains("limit") || response.getBody().contains("500"));
   }
 
+  @Test
+  void testGetCustomerById_withSeveralViolations_shouldReturnJsonErrorResponse() throws Exception {
+    String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST123")
+        .queryParam("page", -1)
+        .queryParam("limit", 501)
+        .toUriString();
+
+    ResponseEntity<ErrorResponse> response = restTemplate.getForEntity(url, ErrorResponse.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("page: Page number cannot be negative, limit: Limit cannot be greater than 500",
+        response.getBody().message());
+    assertEquals("ValidationException", response.getBody().error());
+    assertEquals("400", response.getBody().code());
+    assertNotNull(response.getBody().timestamp());
+  }
+
   @Test
   void testGetCustomerById_withSameDateRange_shouldReturnSuccess() throws Exception {
     String url = UriComponentsBuilder.fromPath("/data-share/v1/customers/CUST999")
@@ -192,7 +317,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -204,7 +329,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -216,7 +341,7 @@ class CustomerRestServiceTest {
     ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
   }
 
   @Test
@@ -227,6 +352,76 @@ class CustomerRestServiceTest {
         String.class);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("\"Customer request created successfully\"", response.getBody());
+    assertEquals("[]", response.getBody());
+  }
+
+  @Test
+  void testBatchGet_withMixedIds_shouldReturnOneEntryPerDistinctId() throws Exception {
+    Map<String, Object> body = Map.of(
+        "customerIds", List.of("CUST123", "CUST789", "NOBODY", "", "CUST123"),
+        "limit", 2);
+
+    ResponseEntity<CustomerBatchResponse> response = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", body, CustomerBatchResponse.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<CustomerBatchEntry> results = response.getBody().results();
+    assertEquals(4, results.size());
+
+    assertEquals("CUST123", results.get(0).customerId());
+    assertEquals(2, results.get(0).records().size());
+    assertEquals("789 Pine Road, Boston, MA 02101", results.get(0).records().get(0).address());
+    assertEquals("CUST789", results.get(1).customerId());
+    assertEquals(1, results.get(1).records().size());
+    assertEquals("NOBODY", results.get(2).customerId());
+    assertTrue(results.get(2).records().isEmpty());
+
+    assertEquals("", results.get(3).customerId());
+    assertNull(results.get(3).records());
+    assertEquals("customerId: Customer ID cannot be null or empty", results.get(3).error().message());
+  }
+
+  @Test
+  void testBatchGet_withDateRangeAndSecondPage_shouldPageEachCustomer() throws Exception {
+    Map<String, Object> body = Map.of(
+        "customerIds", List.of("CUST123", "CUST789"),
+        "startDate", "2024-01-01T00:00:00.000Z",
+        "endDate", "2024-12-31T23:59:59.999Z",
+        "page", 1,
+        "limit", 1);
+
+    ResponseEntity<CustomerBatchResponse> response = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", body, CustomerBatchResponse.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<CustomerBatchEntry> results = response.getBody().results();
+    assertEquals(1, results.get(0).records().size());
+    assertEquals("123 Main Street, New York, NY 10001", results.get(0).records().get(0).address());
+    assertTrue(results.get(1).records().isEmpty());
+  }
+
+  @Test
+  void testBatchGet_withInvalidSharedLimit_shouldReturn400() throws Exception {
+    Map<String, Object> body = Map.of("customerIds", List.of("CUST123"), "limit", 501);
+
+    ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", body, ErrorResponse.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("limit: Limit cannot be greater than 500", response.getBody().message());
+  }
+
+  @Test
+  void testBatchGet_withTooManyIds_shouldReturn400() throws Exception {
+    List<String> customerIds = new ArrayList<>();
+    for (int i = 0; i <= CustomerBatchRequest.MAX_IDS; i++) {
+      customerIds.add("CUST" + i);
+    }
+
+    ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(
+        "/data-share/v1/customers/batchGet", Map.of("customerIds", customerIds), ErrorResponse.class);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("customerIds: customerIds cannot contain more than 200 IDs", response.getBody().message());
   }
-}
\ No newline at end of file
+}
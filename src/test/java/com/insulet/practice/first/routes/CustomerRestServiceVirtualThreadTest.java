@@ -0,0 +1,57 @@
+package com.insulet.practice.first.routes;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.camel.builder.AdviceWith;
+import org.apache.camel.model.ModelCamelContext;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.insulet.practice.first.FirstApplication;
+
+/**
+ * The customer route in virtual execution mode. Tomcat's executor only helps if platform-http runs
+ * the route on the thread that accepted the request, so this checks where the route actually runs.
+ */
+@CamelSpringBootTest
+@SpringBootTest(classes = { FirstApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "application.request.execution.mode=virtual")
+@Import(TestConfig.class)
+class CustomerRestServiceVirtualThreadTest {
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private ModelCamelContext camelContext;
+
+  @Test
+  void testGetCustomerById_shouldRunTheRouteOnAVirtualThread() throws Exception {
+    AtomicReference<Thread> routeThread = new AtomicReference<>();
+    RouteDefinition route = camelContext.getRouteDefinitions().stream()
+        .filter(definition -> "direct://getCustomerById".equals(definition.getInput().getEndpointUri())
+            || "direct:getCustomerById".equals(definition.getInput().getEndpointUri()))
+        .findFirst()
+        .orElseThrow();
+    AdviceWith.adviceWith(route, camelContext,
+        advice -> advice.weaveAddFirst().process(exchange -> routeThread.set(Thread.currentThread())));
+
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/data-share/v1/customers/CUST123",
+        String.class);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue(response.getBody().contains("789 Pine Road"));
+    assertTrue(routeThread.get().isVirtual(), "route ran on " + routeThread.get());
+  }
+}
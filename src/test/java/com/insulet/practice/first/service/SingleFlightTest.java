@@ -0,0 +1,107 @@
+package com.insulet.practice.first.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void execute_withConcurrentEqualKeys_shouldLoadOnceAndShareTheResult() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ZERO, registry);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<String> leader = executor.submit(() -> singleFlight.execute("CUST123", key -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return "page of " + key;
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    List<Future<String>> followers = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      followers.add(executor.submit(() -> singleFlight.execute("CUST123", key -> {
+        loads.incrementAndGet();
+        return "second load";
+      })));
+    }
+    // Followers register before they park, wait until all five are counted
+    while (registry.get("test.coalescing.calls").tag("role", "follower").counter().count() < 5) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    assertEquals("page of CUST123", leader.get(5, TimeUnit.SECONDS));
+    for (Future<String> follower : followers) {
+      assertEquals("page of CUST123", follower.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    assertEquals(0, singleFlight.inFlight());
+    assertEquals(6.0, registry.get("test.coalescing.fanin").summary().totalAmount());
+  }
+
+  @Test
+  void execute_afterLoadFinished_shouldLoadAgainWithoutWindow() throws Exception {
+    SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ZERO, registry);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(1, singleFlight.execute("CUST123", key -> loads.incrementAndGet()));
+    assertEquals(2, singleFlight.execute("CUST123", key -> loads.incrementAndGet()));
+  }
+
+  @Test
+  void execute_withinWindow_shouldShareTheFinishedResult() throws Exception {
+    SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(30), registry);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(1, singleFlight.execute("CUST123", key -> loads.incrementAndGet()));
+    assertEquals(1, singleFlight.execute("CUST123", key -> loads.incrementAndGet()));
+    assertEquals(2, singleFlight.execute("CUST789", key -> loads.incrementAndGet()));
+  }
+
+  @Test
+  void execute_whenLoadFails_shouldNotShareTheFailureWithLaterCalls() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(30), registry);
+
+    assertThrows(IllegalStateException.class, () -> singleFlight.execute("CUST123", key -> {
+      throw new IllegalStateException("database unavailable");
+    }));
+
+    assertEquals(0, singleFlight.inFlight());
+    assertEquals("recovered", singleFlight.execute("CUST123", key -> "recovered"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.insulet.practice.first.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IsoTimestampsTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "2024-01-01T00:00:00.000Z",
+      "2024-12-31T23:59:59.999Z",
+      "2024-02-29T12:30:45.123Z",
+      "2000-02-29T00:00:00.000Z",
+      "1970-01-01T00:00:00.000Z",
+      "1969-12-31T23:59:59.999Z",
+      "1900-03-01T08:15:00.500Z",
+      "0001-01-01T00:00:00.000Z",
+      "9999-12-31T23:59:59.999Z" })
+  void parse_withValidTimestamp_shouldMatchJavaTime(String value) {
+    assertEquals(Instant.parse(value).toEpochMilli(), IsoTimestamps.parse(value));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "2024-01-01",
+      "31/12/2024",
+      "2024-01-01T00:00:00Z",
+      "2024-01-01T00:00:00.000",
+      "2024-01-01T00:00:00.0000Z",
+      "2024-01-01 00:00:00.000Z",
+      "2024-13-01T00:00:00.000Z",
+      "2024-00-01T00:00:00.000Z",
+      "2024-04-31T00:00:00.000Z",
+      "2023-02-29T00:00:00.000Z",
+      "1900-02-29T00:00:00.000Z",
+      "2024-01-00T00:00:00.000Z",
+      "2024-01-01T24:00:00.000Z",
+      "2024-01-01T00:60:00.000Z",
+      "2024-01-01T00:00:60.000Z",
+      "2024-0a-01T00:00:00.000Z",
+      "+024-01-01T00:00:00.000Z" })
+  void parse_withInvalidTimestamp_shouldReturnInvalid(String value) {
+    assertEquals(IsoTimestamps.INVALID, IsoTimestamps.parse(value));
+  }
+
+  @Test
+  void parse_withNull_shouldReturnInvalid() {
+    assertEquals(IsoTimestamps.INVALID, IsoTimestamps.parse(null));
+  }
+}
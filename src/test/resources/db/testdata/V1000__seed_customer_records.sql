@@ -0,0 +1,6 @@
+-- Test fixtures, applied after the schema migrations (see spring.flyway.locations in the test application.yml)
+INSERT INTO customer_records (customer_id, name, address, salary, dob, recorded_at) VALUES
+    ('CUST123', 'John Doe', '123 Main Street, New York, NY 10001', 75000.50, TIMESTAMP '1990-05-15 08:30:00', TIMESTAMP '2024-02-01 10:00:00'),
+    ('CUST123', 'John Doe', '456 Oak Avenue, New York, NY 10002', 78000.00, TIMESTAMP '1990-05-15 08:30:00', TIMESTAMP '2024-06-01 10:00:00'),
+    ('CUST123', 'John Doe', '789 Pine Road, Boston, MA 02101', 82000.00, TIMESTAMP '1990-05-15 08:30:00', TIMESTAMP '2025-01-15 10:00:00'),
+    ('CUST789', 'Jane Roe', '1 Harbor Way, Seattle, WA 98101', 91000.25, TIMESTAMP '1985-11-02 00:00:00', TIMESTAMP '2024-06-15 09:00:00');